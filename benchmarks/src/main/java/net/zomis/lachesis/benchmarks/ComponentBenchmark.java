@@ -0,0 +1,94 @@
+package net.zomis.lachesis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.CopyableComponent;
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.retrievers.ComponentRetriever;
+import net.zomis.lachesis.retrievers.Retrievers;
+
+/**
+ * Cost of retrieving a component from an entity and of copying an entity
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComponentBenchmark {
+
+	public static class Position extends Component implements CopyableComponent {
+		int x;
+		int y;
+
+		@Override
+		public Position copy(Entity copyTo) {
+			Position copy = new Position();
+			copy.x = x;
+			copy.y = y;
+			return copy;
+		}
+	}
+
+	public static class Health extends Component implements CopyableComponent {
+		int health = 100;
+
+		@Override
+		public Health copy(Entity copyTo) {
+			Health copy = new Health();
+			copy.health = health;
+			return copy;
+		}
+	}
+
+	public static class Name extends Component {
+		final String name = "Entity";
+	}
+
+	private static final ComponentRetriever<Health> health = Retrievers.component(Health.class);
+
+	private Game game;
+	private Entity entity;
+
+	@Setup
+	public void setup() {
+		game = new Game();
+		entity = game.newEntity();
+		entity.addComponents(new Position(), new Health(), new Name());
+	}
+
+	@Benchmark
+	public Health retrieverGet() {
+		return health.get(entity);
+	}
+
+	@Benchmark
+	public Health getComponent() {
+		return entity.getComponent(Health.class);
+	}
+
+	/**
+	 * The copy is destroyed again, so that the game does not grow during the benchmark
+	 */
+	@Benchmark
+	public Entity copyAndDestroy() {
+		Entity copy = entity.copy();
+		copy.destroy();
+		return copy;
+	}
+
+}
@@ -0,0 +1,81 @@
+package net.zomis.lachesis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.zomis.lachesis.events.CancellableEvent;
+import net.zomis.lachesis.events.EventExecutor;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Cost of executing an event through {@link EventExecutor}, with half of the handlers before and half after the event
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBenchmark {
+
+	public static class CountedEvent implements IEvent {
+		int handled;
+	}
+
+	public static class CountedCancellableEvent implements CancellableEvent {
+		int handled;
+		private boolean cancelled;
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public void setCancelled(boolean cancelled) {
+			this.cancelled = cancelled;
+		}
+	}
+
+	@Param({ "1", "10", "100" })
+	public int handlers;
+
+	private final EventExecutor events = new EventExecutor();
+	private final Runnable action = () -> {};
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < handlers; i++) {
+			if (i % 2 == 0) {
+				events.registerHandlerBefore(this, CountedEvent.class, e -> e.handled++);
+				events.registerHandlerBefore(this, CountedCancellableEvent.class, e -> e.handled++);
+			}
+			else {
+				events.registerHandlerAfter(this, CountedEvent.class, e -> e.handled++);
+				events.registerHandlerAfter(this, CountedCancellableEvent.class, e -> e.handled++);
+			}
+		}
+	}
+
+	@Benchmark
+	public CountedEvent executeEvent() {
+		return events.executeEvent(new CountedEvent(), action);
+	}
+
+	@Benchmark
+	public CountedCancellableEvent executeCancellableEvent() {
+		return events.executeCancellableEvent(new CountedCancellableEvent(), action);
+	}
+
+}
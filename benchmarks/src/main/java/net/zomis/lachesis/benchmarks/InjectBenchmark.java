@@ -0,0 +1,75 @@
+package net.zomis.lachesis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GameSystem;
+import net.zomis.lachesis.players.PlayerComponent;
+import net.zomis.lachesis.retrievers.ComponentRetriever;
+import net.zomis.lachesis.retrievers.Retriever;
+import net.zomis.lachesis.retrievers.Retrievers;
+
+/**
+ * Cost of creating a game and setting up its systems, which is dominated by {@link Retrievers#inject(Object, Game)}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InjectBenchmark {
+
+	public static class Position extends Component {
+	}
+
+	public static class Health extends Component {
+	}
+
+	public static class InjectedSystem implements GameSystem {
+		@Retriever
+		private ComponentRetriever<PlayerComponent> players;
+		@Retriever
+		private ComponentRetriever<Position> positions;
+		@Retriever
+		private ComponentRetriever<Health> health;
+
+		@Override
+		public void startGame(Game game) {
+		}
+	}
+
+	@Param({ "1", "10" })
+	public int systems;
+
+	private final Game game = new Game();
+
+	@Benchmark
+	public Game newGameWithSystems() {
+		Game game = new Game();
+		for (int i = 0; i < systems; i++) {
+			game.addSystem(new InjectedSystem());
+		}
+		return game;
+	}
+
+	@Benchmark
+	public InjectedSystem inject() {
+		InjectedSystem system = new InjectedSystem();
+		Retrievers.inject(system, game);
+		return system;
+	}
+
+}
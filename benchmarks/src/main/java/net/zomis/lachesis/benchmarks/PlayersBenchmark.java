@@ -0,0 +1,82 @@
+package net.zomis.lachesis.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.EntityFamily;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.players.PlayerComponent;
+import net.zomis.lachesis.players.Players;
+
+/**
+ * Cost of declaring every player of a game as winner or loser, one player at a time or all at once.
+ * The game is rolled back to its mark after each invocation, so the results include the cost of undoing the eliminations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayersBenchmark {
+
+	@Param({ "2", "10", "100" })
+	public int players;
+
+	private Game game;
+	private EntityFamily family;
+	private int mark;
+
+	@Setup
+	public void setup() {
+		game = new Game();
+		for (int i = 0; i < players; i++) {
+			game.newEntity().addComponent(new PlayerComponent(i, "Player " + i));
+		}
+		family = game.getFamily(PlayerComponent.class);
+		game.setJournaling(true);
+		mark = game.mark();
+	}
+
+	@Benchmark
+	public Game winGame() {
+		for (int i = 0; i < family.size(); i++) {
+			Players.winGame(family.get(i));
+		}
+		game.rollback(mark);
+		return game;
+	}
+
+	@Benchmark
+	public Game loseGame() {
+		for (int i = 0; i < family.size(); i++) {
+			Players.loseGame(family.get(i));
+		}
+		game.rollback(mark);
+		return game;
+	}
+
+	@Benchmark
+	public Game loseGameBatch() {
+		List<Entity> all = new ArrayList<>(family.size());
+		family.forEach(all::add);
+		Players.loseGame(all);
+		game.rollback(mark);
+		return game;
+	}
+
+}
@@ -0,0 +1,77 @@
+package net.zomis.lachesis.benchmarks;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.EntityFamily;
+import net.zomis.lachesis.core.Game;
+
+/**
+ * Cost of finding the entities that have a component, when one in ten entities has it
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+	public static class Position extends Component {
+	}
+
+	public static class Marker extends Component {
+	}
+
+	@Param({ "1000", "10000", "100000" })
+	public int entities;
+
+	private Game game;
+	private EntityFamily marked;
+
+	@Setup
+	public void setup() {
+		game = new Game();
+		for (int i = 0; i < entities; i++) {
+			Entity entity = game.newEntity().addComponent(new Position());
+			if (i % 10 == 0) {
+				entity.addComponent(new Marker());
+			}
+		}
+		marked = game.getFamily(Marker.class);
+	}
+
+	@Benchmark
+	public Set<Entity> getEntitiesWithComponent() {
+		return game.getEntitiesWithComponent(Marker.class);
+	}
+
+	@Benchmark
+	public List<Entity> findEntities() {
+		return game.findEntities(entity -> entity.hasComponent(Marker.class));
+	}
+
+	@Benchmark
+	public void iterateFamily(Blackhole blackhole) {
+		for (int i = 0; i < marked.size(); i++) {
+			blackhole.consume(marked.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package net.zomis.lachesis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.ComponentPool;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GamePool;
+import net.zomis.lachesis.core.GameSystem;
+
+/**
+ * Cost of playing a short game that creates entities when started, with a new game each time or with games from a pool
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResetBenchmark {
+
+	public static class Position extends Component {
+		int x;
+		int y;
+	}
+
+	private static class BoardSystem implements GameSystem {
+		private final int size;
+		private final ComponentPool<Position> positions;
+
+		BoardSystem(int size, ComponentPool<Position> positions) {
+			this.size = size;
+			this.positions = positions;
+		}
+
+		@Override
+		public void startGame(Game game) {
+			for (int i = 0; i < size; i++) {
+				Position position = positions == null ? new Position() : positions.obtain();
+				position.x = i;
+				position.y = i;
+				game.newEntity().addComponent(position);
+			}
+		}
+	}
+
+	@Param({ "10", "100" })
+	public int entities;
+
+	private GamePool pool;
+	private long seed;
+
+	@Setup
+	public void setup() {
+		ComponentPool<Position> positions = new ComponentPool<>(Position.class, Position::new, position -> {}, entities);
+		pool = new GamePool(() -> {
+			Game game = new Game();
+			game.setPooling(true);
+			game.setComponentPool(positions);
+			game.addSystem(new BoardSystem(entities, positions));
+			return game;
+		});
+	}
+
+	@Benchmark
+	public Game newGame() {
+		Game game = new Game();
+		game.addSystem(new BoardSystem(entities, null));
+		game.getRandom().setSeed(seed++);
+		game.startGame();
+		return game;
+	}
+
+	@Benchmark
+	public Game pooledGame() {
+		Game game = pool.obtain(seed++);
+		game.startGame();
+		pool.release(game);
+		return game;
+	}
+
+}
@@ -0,0 +1,18 @@
+package net.zomis.lachesis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.zomis.lachesis.EntityCreation")
+@Label("Entity Creation")
+@Category({ "Lachesis", "Entities" })
+final class EntityCreation extends jdk.jfr.Event {
+
+	@Label("Entity Id")
+	int entityId;
+
+	@Label("Generation")
+	int generation;
+
+}
@@ -0,0 +1,18 @@
+package net.zomis.lachesis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.zomis.lachesis.EntityDestruction")
+@Label("Entity Destruction")
+@Category({ "Lachesis", "Entities" })
+final class EntityDestruction extends jdk.jfr.Event {
+
+	@Label("Entity Id")
+	int entityId;
+
+	@Label("Generation")
+	int generation;
+
+}
@@ -0,0 +1,22 @@
+package net.zomis.lachesis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.zomis.lachesis.EventDispatch")
+@Label("Event Dispatch")
+@Description("Execution of a game event, from its first to its last handler")
+@Category({ "Lachesis", "Events" })
+@StackTrace(false)
+final class EventDispatch extends jdk.jfr.Event {
+
+	@Label("Event Class")
+	Class<?> eventClass;
+
+	@Label("Cancelled")
+	boolean cancelled;
+
+}
@@ -0,0 +1,18 @@
+package net.zomis.lachesis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.zomis.lachesis.GameStateChange")
+@Label("Game State Change")
+@Category({ "Lachesis", "Games" })
+final class GameStateChange extends jdk.jfr.Event {
+
+	@Label("Previous State")
+	String previous;
+
+	@Label("State")
+	String state;
+
+}
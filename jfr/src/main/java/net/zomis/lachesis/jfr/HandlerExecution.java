@@ -0,0 +1,30 @@
+package net.zomis.lachesis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.zomis.lachesis.HandlerExecution")
+@Label("Handler Execution")
+@Description("Execution of one event handler")
+@Category({ "Lachesis", "Events" })
+@StackTrace(false)
+final class HandlerExecution extends jdk.jfr.Event {
+
+	@Label("Event Class")
+	Class<?> eventClass;
+
+	@Label("Identifier Class")
+	@Description("Class of the identifier of the handler, usually the system that registered it")
+	Class<?> identifierClass;
+
+	@Label("Priority")
+	int priority;
+
+	@Label("After")
+	@Description("True if the handler is executed after the event, false if before")
+	boolean after;
+
+}
@@ -0,0 +1,116 @@
+package net.zomis.lachesis.jfr;
+
+import jdk.jfr.EventType;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GameState;
+import net.zomis.lachesis.events.EventHandler;
+import net.zomis.lachesis.events.IEvent;
+import net.zomis.lachesis.tracing.Tracer;
+
+/**
+ * Emits JDK Flight Recorder events for dispatched events, executed handlers, created and destroyed entities
+ * and changes of the game state. Whether an event type is enabled is checked before the JFR event is allocated,
+ * so while no recording has the events enabled nothing is allocated and no strings are built.
+ * <p>
+ * Install with <code>game.setTracer(JfrTracer.INSTANCE)</code> and record with for example
+ * <code>-XX:StartFlightRecording</code> or <code>jcmd &lt;pid&gt; JFR.start</code>.
+ * The events are in the Lachesis category.
+ *
+ * @author Simon Forsberg
+ */
+public final class JfrTracer implements Tracer {
+
+	public static final JfrTracer INSTANCE = new JfrTracer();
+
+	private static final EventType DISPATCH = EventType.getEventType(EventDispatch.class);
+	private static final EventType EXECUTION = EventType.getEventType(HandlerExecution.class);
+	private static final EventType CREATION = EventType.getEventType(EntityCreation.class);
+	private static final EventType DESTRUCTION = EventType.getEventType(EntityDestruction.class);
+	private static final EventType STATE_CHANGE = EventType.getEventType(GameStateChange.class);
+
+	private JfrTracer() {
+	}
+
+	@Override
+	public Object eventStarted(IEvent event) {
+		if (!DISPATCH.isEnabled()) {
+			return null;
+		}
+		EventDispatch dispatch = new EventDispatch();
+		dispatch.begin();
+		return dispatch;
+	}
+
+	@Override
+	public void eventFinished(Object token, IEvent event, boolean cancelled) {
+		if (token == null) {
+			return;
+		}
+		EventDispatch dispatch = (EventDispatch) token;
+		dispatch.end();
+		if (dispatch.shouldCommit()) {
+			dispatch.eventClass = event.getClass();
+			dispatch.cancelled = cancelled;
+			dispatch.commit();
+		}
+	}
+
+	@Override
+	public Object handlerStarted(EventHandler<?> handler, IEvent event) {
+		if (!EXECUTION.isEnabled()) {
+			return null;
+		}
+		HandlerExecution execution = new HandlerExecution();
+		execution.begin();
+		return execution;
+	}
+
+	@Override
+	public void handlerFinished(Object token, EventHandler<?> handler, IEvent event) {
+		if (token == null) {
+			return;
+		}
+		HandlerExecution execution = (HandlerExecution) token;
+		execution.end();
+		if (execution.shouldCommit()) {
+			execution.eventClass = event.getClass();
+			execution.identifierClass = handler.getIdentifier() == null ? null : handler.getIdentifier().getClass();
+			execution.priority = handler.getPriority();
+			execution.after = handler.isAfter();
+			execution.commit();
+		}
+	}
+
+	@Override
+	public void entityCreated(Entity entity) {
+		if (CREATION.isEnabled()) {
+			EntityCreation creation = new EntityCreation();
+			creation.entityId = entity.getId();
+			creation.generation = entity.getGeneration();
+			creation.commit();
+		}
+	}
+
+	@Override
+	public void entityDestroyed(Entity entity) {
+		if (DESTRUCTION.isEnabled()) {
+			EntityDestruction destruction = new EntityDestruction();
+			destruction.entityId = entity.getId();
+			destruction.generation = entity.getGeneration();
+			destruction.commit();
+		}
+	}
+
+	@Override
+	public void stateChanged(Game game, GameState previous, GameState state) {
+		if (STATE_CHANGE.isEnabled()) {
+			GameStateChange change = new GameStateChange();
+			change.previous = previous.name();
+			change.state = state.name();
+			change.commit();
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores components in one packed column per component type id
+ *
+ * @author Simon Forsberg
+ */
+final class ColumnComponentStore extends ComponentStore {
+
+	private ComponentColumn[] columns = new ComponentColumn[0];
+
+	private ComponentColumn column(int typeId) {
+		if (typeId >= columns.length) {
+			columns = Arrays.copyOf(columns, Math.max(typeId + 1, ComponentType.count()));
+		}
+		if (columns[typeId] == null) {
+			columns[typeId] = new ComponentColumn();
+		}
+		return columns[typeId];
+	}
+
+	@Override
+	Component get(Entity entity, int typeId) {
+		if (typeId >= columns.length || columns[typeId] == null) {
+			return null;
+		}
+		return columns[typeId].get(entity);
+	}
+
+	@Override
+	Component put(Entity entity, int typeId, Component component) {
+		if (!entity.isAttached()) {
+			throw new IllegalStateException("Components can only be added to entities created by Game.newEntity that have not been removed: " + entity);
+		}
+		return column(typeId).put(entity, component);
+	}
+
+	@Override
+	Component remove(Entity entity, int typeId) {
+		if (typeId >= columns.length || columns[typeId] == null) {
+			return null;
+		}
+		return columns[typeId].remove(entity);
+	}
+
+	@Override
+	void clear(Entity entity) {
+		for (ComponentColumn column : columns) {
+			if (column != null) {
+				column.remove(entity);
+			}
+		}
+	}
+
+	@Override
+	void forEachType(Entity entity, IntConsumer action) {
+		for (int typeId = 0; typeId < columns.length; typeId++) {
+			if (columns[typeId] != null && columns[typeId].get(entity) != null) {
+				action.accept(typeId);
+			}
+		}
+	}
+
+	@Override
+	void forEach(int typeId, ComponentIndex index, BiConsumer<Entity, Component> action) {
+		if (typeId < columns.length && columns[typeId] != null) {
+			columns[typeId].forEach(action);
+		}
+	}
+
+}
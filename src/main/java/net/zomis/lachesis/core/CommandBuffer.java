@@ -0,0 +1,122 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+
+/**
+ * Structural changes recorded while iterating over entities in parallel, applied to the game afterwards
+ * in the order of the entities that recorded them. Changes to entities that have been destroyed
+ * by the time the change is applied are skipped, also when a pooling game has reused the entity since,
+ * as the handle of the entity is recorded with the change.
+ *
+ * @author Simon Forsberg
+ * @see Game#forEachParallel(EntityFamily, java.util.function.BiConsumer)
+ */
+public final class CommandBuffer {
+
+	private static final Component[] NO_COMPONENTS = new Component[0];
+
+	private static final byte CREATE = 0;
+	private static final byte DESTROY = 1;
+	private static final byte ADD = 2;
+	private static final byte REMOVE = 3;
+
+	private byte[] kinds = new byte[8];
+	private Entity[] entities = new Entity[8];
+	/**
+	 * The handle of each entity when the change was recorded
+	 */
+	private long[] handles = new long[8];
+	private Object[] values = new Object[8];
+	private int size;
+
+	CommandBuffer() {
+	}
+
+	private void record(byte kind, Entity entity, Object value) {
+		if (size == kinds.length) {
+			grow(size * 2);
+		}
+		kinds[size] = kind;
+		entities[size] = entity;
+		handles[size] = entity == null ? 0 : entity.getHandle();
+		values[size] = value;
+		size++;
+	}
+
+	private void grow(int capacity) {
+		kinds = Arrays.copyOf(kinds, capacity);
+		entities = Arrays.copyOf(entities, capacity);
+		handles = Arrays.copyOf(handles, capacity);
+		values = Arrays.copyOf(values, capacity);
+	}
+
+	/**
+	 * Creates an entity with some components when the changes are applied
+	 * 
+	 * @param components The components of the new entity
+	 */
+	public void newEntity(Component... components) {
+		record(CREATE, null, components.length == 0 ? NO_COMPONENTS : components.clone());
+	}
+
+	public void destroy(Entity entity) {
+		record(DESTROY, entity, null);
+	}
+
+	public void addComponent(Entity entity, Component component) {
+		record(ADD, entity, component);
+	}
+
+	public void removeComponent(Entity entity, Class<? extends Component> component) {
+		record(REMOVE, entity, component);
+	}
+
+	/**
+	 * @return The number of recorded changes
+	 */
+	public int size() {
+		return size;
+	}
+
+	void addAll(CommandBuffer other) {
+		if (size + other.size > kinds.length) {
+			grow(Math.max(size + other.size, size * 2));
+		}
+		System.arraycopy(other.kinds, 0, kinds, size, other.size);
+		System.arraycopy(other.entities, 0, entities, size, other.size);
+		System.arraycopy(other.handles, 0, handles, size, other.size);
+		System.arraycopy(other.values, 0, values, size, other.size);
+		size += other.size;
+	}
+
+	@SuppressWarnings("unchecked")
+	void apply(Game game) {
+		for (int i = 0; i < size; i++) {
+			Entity entity = entities[i];
+			Object value = values[i];
+			if (entity != null && (entity.isRemoved() || entity.getHandle() != handles[i])) {
+				continue;
+			}
+			switch (kinds[i]) {
+				case CREATE:
+					game.newEntity().addComponents((Component[]) value);
+					break;
+				case DESTROY:
+					entity.destroy();
+					break;
+				case ADD:
+					entity.addComponent((Component) value);
+					break;
+				case REMOVE:
+					entity.removeComponent((Class<? extends Component>) value);
+					break;
+				default:
+					throw new AssertionError(kinds[i]);
+			}
+		}
+		Arrays.fill(entities, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+}
@@ -1,5 +1,42 @@
 package net.zomis.lachesis.core;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 public abstract class Component {
 
+	private static final AtomicIntegerFieldUpdater<Component> SHARES = AtomicIntegerFieldUpdater.newUpdater(Component.class, "shares");
+
+	/**
+	 * The number of additional entities, in forked games, that hold this same instance.
+	 * Only {@link CopyableComponent}s and {@link ForkableComponent}s are shared.
+	 */
+	private volatile int shares;
+
+	final boolean isShared() {
+		return shares != 0;
+	}
+
+	final void share() {
+		SHARES.incrementAndGet(this);
+	}
+
+	/**
+	 * Gives up one share of this component. A holder must finish copying the component before giving up its share,
+	 * as the last holder treats the component as its own as soon as no shares are left,
+	 * which may happen on another thread when a game and its fork are used by different threads.
+	 * 
+	 * @return True if another entity still holds this instance, in which case the caller must use its copy
+	 */
+	final boolean release() {
+		while (true) {
+			int current = shares;
+			if (current == 0) {
+				return false;
+			}
+			if (SHARES.compareAndSet(this, current, current - 1)) {
+				return true;
+			}
+		}
+	}
+
 }
@@ -0,0 +1,83 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Packed storage of all components of one type, keyed by entity id.
+ * Components and their entities are kept in two parallel dense arrays.
+ * Entities are compared by identity, so a destroyed entity does not reach the components of a later entity with the same id.
+ *
+ * @author Simon Forsberg
+ */
+final class ComponentColumn {
+
+	/**
+	 * Entity id to position in the dense arrays, plus one. Zero means not present.
+	 */
+	private int[] sparse = new int[0];
+	private Entity[] entities = new Entity[0];
+	private Component[] components = new Component[0];
+	private int size;
+
+	Component get(Entity entity) {
+		int id = entity.getId();
+		if (id >= sparse.length || sparse[id] == 0) {
+			return null;
+		}
+		int position = sparse[id] - 1;
+		return entities[position] == entity ? components[position] : null;
+	}
+
+	Component put(Entity entity, Component component) {
+		int id = entity.getId();
+		if (id < sparse.length && sparse[id] != 0) {
+			int position = sparse[id] - 1;
+			if (entities[position] != entity) {
+				throw new IllegalStateException("The id of " + entity + " belongs to another entity");
+			}
+			Component previous = components[position];
+			components[position] = component;
+			return previous;
+		}
+		if (id >= sparse.length) {
+			sparse = Arrays.copyOf(sparse, Math.max(id + 1, sparse.length * 2));
+		}
+		if (size == entities.length) {
+			int capacity = Math.max(8, size * 2);
+			entities = Arrays.copyOf(entities, capacity);
+			components = Arrays.copyOf(components, capacity);
+		}
+		entities[size] = entity;
+		components[size] = component;
+		sparse[id] = ++size;
+		return null;
+	}
+
+	Component remove(Entity entity) {
+		int id = entity.getId();
+		if (id >= sparse.length || sparse[id] == 0) {
+			return null;
+		}
+		int position = sparse[id] - 1;
+		if (entities[position] != entity) {
+			return null;
+		}
+		Component previous = components[position];
+		size--;
+		entities[position] = entities[size];
+		components[position] = components[size];
+		sparse[entities[position].getId()] = position + 1;
+		entities[size] = null;
+		components[size] = null;
+		sparse[id] = 0;
+		return previous;
+	}
+
+	void forEach(BiConsumer<Entity, Component> action) {
+		for (int i = 0; i < size; i++) {
+			action.accept(entities[i], components[i]);
+		}
+	}
+
+}
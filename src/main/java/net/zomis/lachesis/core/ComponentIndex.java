@@ -0,0 +1,87 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of which entities have which components, one entity set per component type id.
+ *
+ * @author Simon Forsberg
+ */
+final class ComponentIndex {
+
+	private static final EntitySet EMPTY = new EntitySet();
+
+	private EntitySet[] byType = new EntitySet[0];
+
+	void added(Entity entity, int typeId) {
+		if (typeId >= byType.length) {
+			byType = Arrays.copyOf(byType, Math.max(typeId + 1, ComponentType.count()));
+		}
+		EntitySet set = byType[typeId];
+		if (set == null) {
+			set = new EntitySet();
+			byType[typeId] = set;
+		}
+		set.add(entity);
+	}
+
+	void removed(Entity entity, int typeId) {
+		if (typeId < byType.length && byType[typeId] != null) {
+			byType[typeId].remove(entity);
+		}
+	}
+
+	/**
+	 * @param typeId The component type id
+	 * @return The entities having the component type. Must not be modified by the caller.
+	 */
+	EntitySet get(int typeId) {
+		if (typeId >= byType.length || byType[typeId] == null) {
+			return EMPTY;
+		}
+		return byType[typeId];
+	}
+
+	/**
+	 * Performs an action for each entity that has all of the component types and none of the excluded types.
+	 * Iterates the smallest of the required sets and checks membership in the others.
+	 *
+	 * @param all Component type ids that must be present, at least one
+	 * @param none Component type ids that must not be present
+	 * @param action The action to perform for each match
+	 */
+	void forEachMatching(int[] all, int[] none, Consumer<? super Entity> action) {
+		if (all.length == 0) {
+			throw new IllegalArgumentException("At least one required component type must be specified");
+		}
+		EntitySet smallest = get(all[0]);
+		for (int typeId : all) {
+			EntitySet set = get(typeId);
+			if (set.size() < smallest.size()) {
+				smallest = set;
+			}
+		}
+		for (int i = 0; i < smallest.size(); i++) {
+			Entity entity = smallest.get(i);
+			if (matches(entity, all, none)) {
+				action.accept(entity);
+			}
+		}
+	}
+
+	boolean matches(Entity entity, int[] all, int[] none) {
+		for (int typeId : all) {
+			if (!get(typeId).contains(entity)) {
+				return false;
+			}
+		}
+		for (int typeId : none) {
+			if (get(typeId).contains(entity)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
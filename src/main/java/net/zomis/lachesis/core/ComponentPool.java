@@ -0,0 +1,76 @@
+package net.zomis.lachesis.core;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reuses components of one class instead of creating new ones.
+ * Once a pool is set with {@link Game#setComponentPool(ComponentPool)}, components of its class that are removed
+ * from entities of the game are cleaned and returned to the pool, unless the game is journaling
+ * or has been forked or is a fork, as components may then be held by several games.
+ * A component must not be used after it has been removed.
+ * <p>
+ * Like games that are not concurrent, a pool must only be used by one thread at a time.
+ *
+ * @author Simon Forsberg
+ *
+ * @param <T> The class of components
+ */
+public final class ComponentPool<T extends Component> {
+
+	private final Class<T> type;
+	private final Supplier<? extends T> factory;
+	private final Consumer<? super T> cleaner;
+	private final int capacity;
+	private final ArrayDeque<T> free = new ArrayDeque<>();
+
+	/**
+	 * @param type The class of components, subclasses are not pooled
+	 * @param factory Creates a new component when the pool is empty
+	 * @param cleaner Resets the state of a component that is returned to the pool
+	 * @param capacity The largest number of components to keep
+	 */
+	public ComponentPool(Class<T> type, Supplier<? extends T> factory, Consumer<? super T> cleaner, int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+		}
+		this.type = type;
+		this.factory = factory;
+		this.cleaner = cleaner;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return A pooled component, or a new one if the pool is empty
+	 */
+	public T obtain() {
+		T component = free.poll();
+		return component != null ? component : factory.get();
+	}
+
+	void free(Component component) {
+		if (free.size() < capacity && component.getClass() == type) {
+			T pooled = type.cast(component);
+			cleaner.accept(pooled);
+			free.push(pooled);
+		}
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * @return The number of components waiting to be reused
+	 */
+	public int size() {
+		return free.size();
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentPool [" + type.getSimpleName() + ", size=" + free.size() + "]";
+	}
+
+}
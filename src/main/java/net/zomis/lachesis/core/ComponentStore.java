@@ -0,0 +1,44 @@
+package net.zomis.lachesis.core;
+
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Storage of the components of all entities in a game
+ *
+ * @author Simon Forsberg
+ */
+abstract class ComponentStore {
+
+	abstract Component get(Entity entity, int typeId);
+
+	/**
+	 * @return The component that was replaced, or null
+	 */
+	abstract Component put(Entity entity, int typeId, Component component);
+
+	/**
+	 * @return The component that was removed, or null
+	 */
+	abstract Component remove(Entity entity, int typeId);
+
+	/**
+	 * Removes all components from an entity
+	 */
+	abstract void clear(Entity entity);
+
+	/**
+	 * Performs an action for the type id of each component of an entity
+	 */
+	abstract void forEachType(Entity entity, IntConsumer action);
+
+	/**
+	 * Performs an action for each component of a type
+	 * 
+	 * @param typeId The component type id
+	 * @param index The component index of the game
+	 * @param action The action to perform
+	 */
+	abstract void forEach(int typeId, ComponentIndex index, BiConsumer<Entity, Component> action);
+
+}
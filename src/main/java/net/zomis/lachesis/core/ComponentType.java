@@ -0,0 +1,84 @@
+package net.zomis.lachesis.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registry of dense ids for component classes.
+ * Each concrete component class gets a small int id the first time it is seen,
+ * ids are shared by all games and are never reused.
+ *
+ * @author Simon Forsberg
+ */
+public final class ComponentType {
+
+	private static final List<ComponentType> types = new ArrayList<>();
+
+	private static final ClassValue<ComponentType> registry = new ClassValue<ComponentType>() {
+		@Override
+		protected ComponentType computeValue(Class<?> type) {
+			synchronized (types) {
+				ComponentType result = new ComponentType(type.asSubclass(Component.class), types.size());
+				types.add(result);
+				return result;
+			}
+		}
+	};
+
+	private final Class<? extends Component> type;
+	private final int id;
+
+	private ComponentType(Class<? extends Component> type, int id) {
+		this.type = type;
+		this.id = id;
+	}
+
+	/**
+	 * @param clazz The component class
+	 * @return The registered type of the component class, registering it if needed
+	 */
+	public static ComponentType of(Class<? extends Component> clazz) {
+		return registry.get(clazz);
+	}
+
+	/**
+	 * @param clazz The component class
+	 * @return The dense id of the component class
+	 */
+	public static int idOf(Class<? extends Component> clazz) {
+		return registry.get(clazz).id;
+	}
+
+	/**
+	 * @param id The dense id of a component type
+	 * @return The registered type with the id
+	 */
+	public static ComponentType of(int id) {
+		synchronized (types) {
+			return types.get(id);
+		}
+	}
+
+	/**
+	 * @return The number of component types that have been registered so far
+	 */
+	public static int count() {
+		synchronized (types) {
+			return types.size();
+		}
+	}
+
+	public Class<? extends Component> getType() {
+		return type;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentType [" + type.getSimpleName() + ", id=" + id + "]";
+	}
+
+}
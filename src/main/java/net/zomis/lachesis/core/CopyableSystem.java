@@ -0,0 +1,22 @@
+package net.zomis.lachesis.core;
+
+/**
+ * A system that is copied when its game is forked, instead of being shared with the fork.
+ * Systems with fields that are injected with a family or singleton of their game must be copyable
+ * for their game to be forked, see {@link Game#fork()}.
+ *
+ * @author Simon Forsberg
+ */
+public interface CopyableSystem extends GameSystem {
+
+	/**
+	 * Copies the state of this system that is not injected.
+	 * The fields of the copy are injected and its {@link net.zomis.lachesis.events.Subscribe} methods
+	 * are registered by the fork after this returns.
+	 * 
+	 * @param fork The game that the copy is for
+	 * @return A new system of the same class
+	 */
+	GameSystem copy(Game fork);
+
+}
@@ -1,38 +1,140 @@
 package net.zomis.lachesis.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.function.IntConsumer;
 
 import net.zomis.lachesis.events.EntityRemoveEvent;
 import net.zomis.lachesis.retrievers.ComponentRetriever;
 
 public final class Entity {
 
-	private Map<Class<? extends Component>, Component> components = new HashMap<>();
+	/**
+	 * Components indexed by their {@link ComponentType} id, only used by {@link EntityComponentStore}
+	 */
+	Component[] components = EntityComponentStore.NO_COMPONENTS;
 	
-	private final int id;
+	// not final, as entities are reused when the game is pooling
+	private int id;
+	private int generation;
 	private final Game game;
+	private final ComponentStore store;
 
-	private boolean removed;
+	// read by other threads in concurrent games
+	private volatile boolean removed;
+	private volatile boolean attached;
+	/**
+	 * True while this entity is waiting to be reused
+	 */
+	private boolean pooled;
 	
 	public Entity(Game game, int id) {
+		this(game, id, 0);
+	}
+
+	Entity(Game game, int id, int generation) {
 		this.game = game;
 		this.id = id;
+		this.generation = generation;
+		this.store = game.getStore();
 	}
 
 	public Entity addComponent(Component component) {
-		components.put(component.getClass(), component);
+		int typeId = ComponentType.idOf(component.getClass());
+		Object lock = game.getStructureLock();
+		if (lock == null) {
+			putComponent(typeId, component);
+		}
+		else {
+			synchronized (lock) {
+				putComponent(typeId, component);
+			}
+		}
 		return this;
 	}
+
+	private void putComponent(int typeId, Component component) {
+		Component previous = store.put(this, typeId, component);
+		if (attached) {
+			game.componentAdded(this, typeId, previous);
+		}
+	}
 	
 	public boolean hasComponent(Class<? extends Component> clazz) {
-		return components.containsKey(clazz);
+		return getComponent(ComponentType.idOf(clazz)) != null;
+	}
+	
+	/**
+	 * @param typeId The id of the component type, as given by {@link ComponentType#getId()}
+	 * @return True if this entity has a component of the type
+	 */
+	public boolean hasComponent(int typeId) {
+		return getComponent(typeId) != null;
 	}
 	
 	public <T extends Component> T getComponent(Class<T> clazz) {
-		return clazz.cast(components.get(clazz));
+		return clazz.cast(getComponent(ComponentType.idOf(clazz)));
+	}
+	
+	/**
+	 * @param typeId The id of the component type, as given by {@link ComponentType#getId()}
+	 * @return The component of the type, or null if this entity does not have one
+	 */
+	public Component getComponent(int typeId) {
+		Component component = store.get(this, typeId);
+		if (component != null && component.isShared()) {
+			return unshare(typeId, component);
+		}
+		return component;
+	}
+
+	/**
+	 * Replaces a component that is shared with a forked game by a copy of it, unless this entity is the last holder
+	 * 
+	 * @see Game#fork()
+	 */
+	Component unshare(int typeId, Component component) {
+		Object lock = game.getStructureLock();
+		if (lock == null) {
+			return unshareComponent(typeId, component);
+		}
+		synchronized (lock) {
+			Component current = store.get(this, typeId);
+			return current == component ? unshareComponent(typeId, component) : current;
+		}
+	}
+
+	private Component unshareComponent(int typeId, Component component) {
+		if (!component.isShared()) {
+			return component;
+		}
+		// copy before giving up the share, so the last holder can not change the component while it is being copied
+		Component copy = component instanceof ForkableComponent
+			? ((ForkableComponent) component).copyForFork(this) : ((CopyableComponent) component).copy(this);
+		if (copy.getClass() != component.getClass()) {
+			throw new IllegalStateException("Copy of " + component + " is not of the same class: " + copy);
+		}
+		if (!component.release()) {
+			// every other holder has made its own copy, so this entity keeps the original
+			return component;
+		}
+		store.put(this, typeId, copy);
+		return copy;
+	}
+
+	/**
+	 * Adds all components of this entity to an entity in a forked game.
+	 * Copyable and forkable components are shared until either entity accesses them, other components are assumed to be immutable.
+	 */
+	void forkInto(Entity copy) {
+		store.forEachType(this, typeId -> {
+			Component component = store.get(this, typeId);
+			if (component instanceof CopyableComponent || component instanceof ForkableComponent) {
+				component.share();
+			}
+			copy.addComponent(component);
+		});
 	}
 	
 	public <T extends Component> T get(ComponentRetriever<T> retriever) {
@@ -43,6 +145,23 @@ public final class Entity {
 		return id;
 	}
 	
+	/**
+	 * @return The number of entities with the same id that were destroyed before this entity was created
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Ids of destroyed entities are reused, a handle identifies this entity even after its id has been reused.
+	 * 
+	 * @return The generation and id of this entity
+	 * @see Game#getEntityByHandle(long)
+	 */
+	public long getHandle() {
+		return (long) generation << 32 | (id & 0xFFFFFFFFL);
+	}
+
 	public Game getGame() {
 		return game;
 	}
@@ -60,10 +179,14 @@ public final class Entity {
 	 * @return
 	 */
 	public <T extends Component> Collection<T> getSuperComponents(Class<T> compoentClass) {
-		return this.components.entrySet().stream()
-				.filter(entry -> compoentClass.isAssignableFrom(entry.getKey()))
-				.map(entry -> compoentClass.cast(entry.getValue()))
-				.collect(Collectors.toList());
+		List<T> result = new ArrayList<>();
+		store.forEachType(this, typeId -> {
+			Component component = getComponent(typeId);
+			if (compoentClass.isInstance(component)) {
+				result.add(compoentClass.cast(component));
+			}
+		});
+		return result;
 	}
 	
 	@Override
@@ -73,10 +196,87 @@ public final class Entity {
 
 	public void destroy() {
 		getGame().executeEvent(new EntityRemoveEvent(this), () -> {
-			components.clear();
-			game.removeEntity(this);
-			removed = true;
+			Object lock = game.getStructureLock();
+			if (lock == null) {
+				remove();
+			}
+			else {
+				synchronized (lock) {
+					remove();
+				}
+			}
 		});
+		game.releaseRemovedEntities();
+	}
+
+	private void remove() {
+		if (removed) {
+			return;
+		}
+		game.removeEntity(this);
+		store.clear(this);
+		detach();
+		game.recycle(this);
+	}
+
+	/**
+	 * Marks this entity as being part of the game's entities, so that its components are indexed
+	 */
+	void attach() {
+		this.attached = true;
+	}
+
+	boolean isAttached() {
+		return attached;
+	}
+
+	/**
+	 * Marks this entity as removed from the game, without firing any events
+	 */
+	void detach() {
+		this.attached = false;
+		this.removed = true;
+	}
+
+	/**
+	 * Marks this entity as waiting to be reused
+	 * 
+	 * @return False if it was already waiting
+	 */
+	boolean pool() {
+		if (pooled) {
+			return false;
+		}
+		pooled = true;
+		return true;
+	}
+
+	/**
+	 * Turns this pooled entity into a new entity, which has no components and is not yet part of the game
+	 */
+	void reuse(int id, int generation) {
+		this.id = id;
+		this.generation = generation;
+		this.removed = false;
+		this.attached = false;
+		this.pooled = false;
+	}
+
+	/**
+	 * Undoes {@link #detach()}
+	 */
+	void reattach() {
+		this.attached = true;
+		this.removed = false;
+	}
+
+	/**
+	 * Performs an action for the type id of each component of this entity
+	 * 
+	 * @param action The action to perform
+	 */
+	void forEachComponentType(IntConsumer action) {
+		store.forEachType(this, action);
 	}
 
 	/**
@@ -89,7 +289,23 @@ public final class Entity {
 	}
 
 	public void removeComponent(Class<? extends Component> component) {
-		this.components.remove(component);
+		int typeId = ComponentType.idOf(component);
+		Object lock = game.getStructureLock();
+		if (lock == null) {
+			removeComponentOfType(typeId);
+		}
+		else {
+			synchronized (lock) {
+				removeComponentOfType(typeId);
+			}
+		}
+	}
+
+	private void removeComponentOfType(int typeId) {
+		Component removed = store.remove(this, typeId);
+		if (removed != null && attached) {
+			game.componentRemoved(this, typeId, removed);
+		}
 	}
 	
 	/**
@@ -105,12 +321,13 @@ public final class Entity {
 		}
 		Entity copy = game.newEntity();
 		
-		for (Component comp : components.values()) {
+		store.forEachType(this, typeId -> {
+			Component comp = getComponent(typeId);
 			if (comp instanceof CopyableComponent) {
 				CopyableComponent copyable = (CopyableComponent) comp;
 				copy.addComponent(copyable.copy(copy));
 			}
-		}
+		});
 		
 		return copy;
 	}
@@ -0,0 +1,68 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Stores components in an array on each entity, indexed by component type id
+ *
+ * @author Simon Forsberg
+ */
+final class EntityComponentStore extends ComponentStore {
+
+	static final Component[] NO_COMPONENTS = new Component[0];
+
+	@Override
+	Component get(Entity entity, int typeId) {
+		Component[] components = entity.components;
+		return typeId < components.length ? components[typeId] : null;
+	}
+
+	@Override
+	Component put(Entity entity, int typeId, Component component) {
+		if (typeId >= entity.components.length) {
+			entity.components = Arrays.copyOf(entity.components, Math.max(typeId + 1, ComponentType.count()));
+		}
+		Component previous = entity.components[typeId];
+		entity.components[typeId] = component;
+		return previous;
+	}
+
+	@Override
+	Component remove(Entity entity, int typeId) {
+		Component[] components = entity.components;
+		if (typeId >= components.length) {
+			return null;
+		}
+		Component previous = components[typeId];
+		components[typeId] = null;
+		return previous;
+	}
+
+	@Override
+	void clear(Entity entity) {
+		// keeps the array, for when the entity is pooled
+		Arrays.fill(entity.components, null);
+	}
+
+	@Override
+	void forEachType(Entity entity, IntConsumer action) {
+		Component[] components = entity.components;
+		for (int typeId = 0; typeId < components.length; typeId++) {
+			if (components[typeId] != null) {
+				action.accept(typeId);
+			}
+		}
+	}
+
+	@Override
+	void forEach(int typeId, ComponentIndex index, BiConsumer<Entity, Component> action) {
+		EntitySet entities = index.get(typeId);
+		for (int i = 0; i < entities.size(); i++) {
+			Entity entity = entities.get(i);
+			action.accept(entity, entity.components[typeId]);
+		}
+	}
+
+}
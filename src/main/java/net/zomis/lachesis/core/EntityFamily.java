@@ -0,0 +1,184 @@
+package net.zomis.lachesis.core;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A live view of all entities in a game that have all of some components and none of some others.
+ * The view is kept up to date by the game as components are added and removed and as entities are destroyed,
+ * so iterating it requires no filtering and no allocation.
+ * <p>
+ * Obtain a family through {@link Game#getFamily(Class...)} or by injecting a field annotated with
+ * {@link net.zomis.lachesis.retrievers.Family}. Families are shared, requesting the same family twice returns the same object.
+ * <p>
+ * Entities that are added to or removed from the family while iterating over it may or may not be visited.
+ * When destroying entities while iterating, iterate by index from the end.
+ *
+ * @author Simon Forsberg
+ */
+public final class EntityFamily implements Iterable<Entity> {
+
+	private final int[] all;
+	private final int[] none;
+	private final EntitySet members = new EntitySet();
+	private int modifications;
+
+	EntityFamily(int[] all, int[] none) {
+		this.all = all;
+		this.none = none;
+	}
+
+	int[] getAll() {
+		return all;
+	}
+
+	int[] getNone() {
+		return none;
+	}
+
+	void update(Entity entity, ComponentIndex index) {
+		boolean changed = index.matches(entity, all, none) ? members.add(entity) : members.remove(entity);
+		if (changed) {
+			modifications++;
+		}
+	}
+
+	void remove(Entity entity) {
+		if (members.remove(entity)) {
+			modifications++;
+		}
+	}
+
+	void clear() {
+		members.clear();
+		modifications++;
+	}
+
+	/**
+	 * @return A number that changes whenever an entity joins or leaves this family,
+	 * for keeping data derived from the members of the family up to date
+	 */
+	public int getModifications() {
+		return modifications;
+	}
+
+	/**
+	 * @return The number of entities in this family
+	 */
+	public int size() {
+		return members.size();
+	}
+
+	public boolean isEmpty() {
+		return members.isEmpty();
+	}
+
+	/**
+	 * @param index Position between 0 (inclusive) and size (exclusive)
+	 * @return The entity at the position
+	 */
+	public Entity get(int index) {
+		if (index < 0 || index >= members.size()) {
+			throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for family of size " + members.size());
+		}
+		return members.get(index);
+	}
+
+	public boolean contains(Entity entity) {
+		return members.contains(entity);
+	}
+
+	@Override
+	public void forEach(Consumer<? super Entity> action) {
+		members.forEach(action);
+	}
+
+	@Override
+	public Iterator<Entity> iterator() {
+		return new Iterator<Entity>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < members.size();
+			}
+
+			@Override
+			public Entity next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return members.get(next++);
+			}
+		};
+	}
+
+	/**
+	 * @return A spliterator over the entities of this family that splits into ranges of the underlying dense array
+	 */
+	@Override
+	public Spliterator<Entity> spliterator() {
+		return new FamilySpliterator(members, 0, members.size());
+	}
+
+	/**
+	 * Splits by halving its range of positions in the members of a family
+	 */
+	static final class FamilySpliterator implements Spliterator<Entity> {
+		private final EntitySet members;
+		private int origin;
+		private final int fence;
+
+		FamilySpliterator(EntitySet members, int origin, int fence) {
+			this.members = members;
+			this.origin = origin;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entity> action) {
+			if (origin >= fence) {
+				return false;
+			}
+			action.accept(members.get(origin++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Entity> action) {
+			for (int i = origin; i < fence; i++) {
+				action.accept(members.get(i));
+			}
+			origin = fence;
+		}
+
+		@Override
+		public FamilySpliterator trySplit() {
+			int middle = (origin + fence) >>> 1;
+			if (middle <= origin) {
+				return null;
+			}
+			FamilySpliterator prefix = new FamilySpliterator(members, origin, middle);
+			origin = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - origin;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | DISTINCT;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "EntityFamily [size=" + members.size() + "]";
+	}
+
+}
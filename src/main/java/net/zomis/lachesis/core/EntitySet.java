@@ -0,0 +1,96 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Sparse set of entities keyed by entity id.
+ * Add, remove and contains are constant time, iteration only visits the members.
+ *
+ * @author Simon Forsberg
+ */
+final class EntitySet {
+
+	private static final Entity[] NO_ENTITIES = new Entity[0];
+	private static final int[] NO_INDEXES = new int[0];
+
+	/**
+	 * Entity id to position in dense, plus one. Zero means not present.
+	 */
+	private int[] sparse = NO_INDEXES;
+	private Entity[] dense = NO_ENTITIES;
+	private int size;
+
+	boolean add(Entity entity) {
+		int id = entity.getId();
+		if (contains(id)) {
+			return false;
+		}
+		if (id >= sparse.length) {
+			sparse = Arrays.copyOf(sparse, Math.max(id + 1, sparse.length * 2));
+		}
+		if (size == dense.length) {
+			dense = Arrays.copyOf(dense, Math.max(8, size * 2));
+		}
+		dense[size] = entity;
+		sparse[id] = ++size;
+		return true;
+	}
+
+	boolean remove(Entity entity) {
+		int id = entity.getId();
+		if (!contains(entity)) {
+			return false;
+		}
+		int position = sparse[id] - 1;
+		Entity last = dense[--size];
+		dense[position] = last;
+		sparse[last.getId()] = position + 1;
+		dense[size] = null;
+		sparse[id] = 0;
+		return true;
+	}
+
+	/**
+	 * @return True if the entity is a member. A destroyed entity is not a member even if its id has been reused.
+	 */
+	boolean contains(Entity entity) {
+		int id = entity.getId();
+		return contains(id) && dense[sparse[id] - 1] == entity;
+	}
+
+	private boolean contains(int id) {
+		return id < sparse.length && sparse[id] != 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param index Position between 0 (inclusive) and size (exclusive)
+	 * @return The entity at the position
+	 */
+	Entity get(int index) {
+		return dense[index];
+	}
+
+	void forEach(Consumer<? super Entity> action) {
+		for (int i = 0; i < size; i++) {
+			action.accept(dense[i]);
+		}
+	}
+
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			sparse[dense[i].getId()] = 0;
+			dense[i] = null;
+		}
+		size = 0;
+	}
+
+}
@@ -0,0 +1,165 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The entities of a game indexed by id. Ids of destroyed entities are reused, most recently freed first,
+ * so ids stay dense. The generation of an id is increased every time an entity with the id is destroyed,
+ * which makes handles to destroyed entities distinguishable from handles to the entities that reuse their ids.
+ *
+ * @author Simon Forsberg
+ */
+final class EntityTable {
+
+	private Entity[] byId = new Entity[16];
+	private int[] generations = new int[16];
+	private int[] freeIds = new int[16];
+	private int freeCount;
+	private int lastId;
+	private int size;
+
+	/**
+	 * @return An unused id, either a freed id or a new one
+	 */
+	int allocate() {
+		if (freeCount > 0) {
+			return freeIds[--freeCount];
+		}
+		lastId++;
+		if (lastId >= byId.length) {
+			byId = Arrays.copyOf(byId, byId.length * 2);
+			generations = Arrays.copyOf(generations, byId.length);
+		}
+		return lastId;
+	}
+
+	/**
+	 * @return The highest id that has been allocated
+	 */
+	int getLastId() {
+		return lastId;
+	}
+
+	int generation(int id) {
+		return generations[id];
+	}
+
+	int size() {
+		return size;
+	}
+
+	Entity get(int id) {
+		return id > 0 && id <= lastId ? byId[id] : null;
+	}
+
+	void put(Entity entity) {
+		if (byId[entity.getId()] != null) {
+			throw new IllegalStateException("Entity " + entity.getId() + " already exists");
+		}
+		byId[entity.getId()] = entity;
+		size++;
+	}
+
+	/**
+	 * Removes a destroyed entity and frees its id
+	 */
+	void remove(Entity entity) {
+		int id = entity.getId();
+		byId[id] = null;
+		size--;
+		generations[id]++;
+		free(id);
+	}
+
+	private void free(int id) {
+		if (freeCount == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+		}
+		freeIds[freeCount++] = id;
+	}
+
+	/**
+	 * Undoes the creation of an entity
+	 * 
+	 * @param previousLastId The last id before the entity was created
+	 */
+	void discard(Entity entity, int previousLastId) {
+		int id = entity.getId();
+		byId[id] = null;
+		size--;
+		if (id > previousLastId) {
+			lastId = previousLastId;
+		}
+		else {
+			free(id);
+		}
+	}
+
+	/**
+	 * Undoes the destruction of an entity
+	 */
+	void restore(Entity entity) {
+		int id = entity.getId();
+		for (int i = freeCount - 1; i >= 0; i--) {
+			if (freeIds[i] == id) {
+				System.arraycopy(freeIds, i + 1, freeIds, i, freeCount - i - 1);
+				freeCount--;
+				break;
+			}
+		}
+		generations[id] = entity.getGeneration();
+		put(entity);
+	}
+
+	void forEach(Consumer<? super Entity> action) {
+		for (int id = 1; id <= lastId; id++) {
+			Entity entity = byId[id];
+			if (entity != null) {
+				action.accept(entity);
+			}
+		}
+	}
+
+	/**
+	 * @return The freed ids, the last one will be reused first
+	 */
+	int[] getFreeIds() {
+		return Arrays.copyOf(freeIds, freeCount);
+	}
+
+	/**
+	 * Replaces the ids of this table, which must be empty
+	 */
+	void restoreIds(int lastId, int[] generations, int[] freeIds) {
+		this.lastId = lastId;
+		this.byId = new Entity[Math.max(16, generations.length)];
+		this.generations = Arrays.copyOf(generations, byId.length);
+		this.freeIds = Arrays.copyOf(freeIds, Math.max(16, freeIds.length));
+		this.freeCount = freeIds.length;
+	}
+
+	/**
+	 * Makes this table, which must be empty, allocate the same ids as another table
+	 */
+	void copyIds(EntityTable other) {
+		restoreIds(other.lastId, Arrays.copyOf(other.generations, other.lastId + 1), other.getFreeIds());
+	}
+
+	/**
+	 * Removes all entities and allocates ids from 1 again. Generations are kept, and increased for the ids in use,
+	 * so that handles from before clearing do not find the entities that get the same ids afterwards.
+	 */
+	void clear() {
+		for (int id = 1; id <= lastId; id++) {
+			if (byId[id] != null) {
+				byId[id] = null;
+				generations[id]++;
+			}
+		}
+		freeCount = 0;
+		lastId = 0;
+		size = 0;
+	}
+
+}
@@ -0,0 +1,18 @@
+package net.zomis.lachesis.core;
+
+/**
+ * A mutable component that is copied on write when its game is forked, like a {@link CopyableComponent},
+ * but which is not copied by {@link Entity#copy()}, for components that identify an entity such as a player.
+ *
+ * @author Simon Forsberg
+ * @see Game#fork()
+ */
+public interface ForkableComponent {
+
+	/**
+	 * @param copyTo The entity that gets the copy, in this game or in a fork of it
+	 * @return A new component of the same class with the same state
+	 */
+	Component copyForFork(Entity copyTo);
+
+}
@@ -1,22 +1,37 @@
 package net.zomis.lachesis.core;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import net.zomis.lachesis.events.CancellableEvent;
+import net.zomis.lachesis.events.ConcurrentEventExecutor;
+import net.zomis.lachesis.events.EntityRemoveEvent;
 import net.zomis.lachesis.events.EventExecutor;
 import net.zomis.lachesis.events.GameOverEvent;
 import net.zomis.lachesis.events.IEvent;
 import net.zomis.lachesis.events.StartGameEvent;
+import net.zomis.lachesis.metrics.MetricsListener;
+import net.zomis.lachesis.players.Standings;
 import net.zomis.lachesis.retrievers.ComponentRetriever;
 import net.zomis.lachesis.retrievers.Retrievers;
+import net.zomis.lachesis.tracing.Tracer;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -28,38 +43,223 @@ import org.apache.log4j.Logger;
  */
 public final class Game {
 	private static final Logger logger = LogManager.getLogger(Game.class);
+	/**
+	 * The smallest number of entities processed by one thread in {@link #forEachParallel(EntityFamily, BiConsumer)}
+	 */
+	private static final int MIN_PARALLEL_CHUNK = 1024;
 
-	private final AtomicInteger ids = new AtomicInteger();
-	
 	/**
-	 * All the entities of a single game
+	 * All the entities of a single game, by id
+	 */
+	private final EntityTable entities = new EntityTable();
+	/**
+	 * The entities of each component type
 	 */
-	private final Map<Integer, Entity> entities = new HashMap<>();
-	private final EventExecutor events = new EventExecutor();
+	private final ComponentIndex index = new ComponentIndex();
+	/**
+	 * The components of all entities
+	 */
+	private final ComponentStore store;
+	/**
+	 * The families that have been requested, by their component type ids
+	 */
+	private final Map<String, EntityFamily> families = new HashMap<>();
+	/**
+	 * The families that depend on each component type id
+	 */
+	private List<EntityFamily>[] familiesByType = newFamilyLists(0);
+	/**
+	 * The entities holding singleton components
+	 */
+	private final SingletonRegistry singletons = new SingletonRegistry();
+	private final EventExecutor events;
 	
 	/**
 	 * All the systems that comprise the game
 	 */
-	private final List<GameSystem> systems = new ArrayList<>();
-	private final Random random = new Random();
+	private final List<GameSystem> systems;
+	private final GameRandom random;
+	private final StorageMode storageMode;
+	/**
+	 * Held while changing the structure of a concurrent game, null if the game is not concurrent.
+	 * User code and events are never run while holding it, as handlers of drained events take it while the executor is locked.
+	 */
+	private final Object structureLock;
 	/**
 	 * An enum for the current state of the game
 	 */
-	private GameState gameState = GameState.NOT_STARTED;
+	private volatile GameState gameState = GameState.NOT_STARTED;
+	/**
+	 * The changes made since journaling was enabled, null when not journaling
+	 */
+	private Journal journal;
+	/**
+	 * The order to update systems in, null when it needs to be rebuilt
+	 */
+	private SystemSchedule schedule;
+	private ForkJoinPool updatePool = ForkJoinPool.commonPool();
+	/**
+	 * True if this game has been forked or is a fork, in which case components may be copied when retrieved
+	 * and removed components are never returned to component pools, as another game may still hold them
+	 */
+	private boolean forked;
+	private MetricsListener metrics;
+	private Tracer tracer;
+	/**
+	 * The free result positions of the players, created when first requested
+	 */
+	private Standings standings;
+	/**
+	 * Destroyed entities waiting to be reused, null when not pooling
+	 */
+	private ArrayDeque<Entity> entityPool;
+	/**
+	 * Destroyed entities that events may still reference, moved to the entity pool once no event is executing or queued
+	 */
+	private ArrayDeque<Entity> removedEntities;
+	/**
+	 * True after a reset, until systems have been injected with the state of the new game
+	 */
+	private boolean injectOnStart;
+	/**
+	 * The pools of removed components, by component type id
+	 */
+	private ComponentPool<?>[] componentPools = new ComponentPool<?>[0];
 	
 	public Game() {
+		this(StorageMode.ENTITY);
+	}
+
+	/**
+	 * @param storageMode How to store the components of entities
+	 */
+	public Game(StorageMode storageMode) {
+		this(storageMode, false);
+	}
+
+	/**
+	 * Creates a game that is either confined to one thread at a time or safe to use from several threads at once.
+	 * <p>
+	 * A concurrent game stores systems and event handlers in copy-on-write lists,
+	 * so events can be executed while handlers are registered. Components are guarded by striped locks,
+	 * and adding and removing components and entities are serialized by a lock on the structure of the game.
+	 * Query results are copies, but families are live views that are changed under the structure lock,
+	 * so iterating a family while other threads change the game may miss entities.
+	 * Only entity storage is supported in a concurrent game, and its events can not be monitored.
+	 * 
+	 * @param storageMode How to store the components of entities
+	 * @param concurrent Whether or not the game may be used from several threads at once
+	 */
+	public Game(StorageMode storageMode, boolean concurrent) {
+		if (concurrent && storageMode != StorageMode.ENTITY) {
+			throw new IllegalArgumentException("Concurrent games only support entity storage");
+		}
+		this.storageMode = storageMode;
+		this.random = new GameRandom(concurrent);
+		ComponentStore componentStore = storageMode == StorageMode.COLUMN ? new ColumnComponentStore() : new EntityComponentStore();
+		if (concurrent) {
+			this.store = new StripedComponentStore(componentStore);
+			this.systems = new CopyOnWriteArrayList<>();
+			this.events = new ConcurrentEventExecutor();
+			this.structureLock = new Object();
+		}
+		else {
+			this.store = componentStore;
+			this.systems = new ArrayList<>();
+			this.events = new EventExecutor();
+			this.structureLock = null;
+		}
+		this.events.setCoalescing(EntityRemoveEvent.class, EntityRemoveEvent::getEntity);
 	}
 	
 	/**
-	 * Creates an entity, assigns an Id, adds it to the entities of the game object
+	 * Creates an entity, assigns an Id, adds it to the entities of the game object.
+	 * The id of a destroyed entity is reused if there is one, see {@link Entity#getHandle()}.
 	 * @return The created entity
 	 */
 	public Entity newEntity() {
-		Entity entity = new Entity(this, ids.incrementAndGet());
-		this.entities.put(entity.getId(), entity);
+		if (structureLock != null) {
+			synchronized (structureLock) {
+				return createEntity();
+			}
+		}
+		return createEntity();
+	}
+
+	private Entity createEntity() {
+		int previousLastId = entities.getLastId();
+		int id = entities.allocate();
+		Entity entity = entityFor(id);
+		entities.put(entity);
+		entity.attach();
+		if (journal != null) {
+			journal.entityCreated(entity, previousLastId);
+		}
+		if (tracer != null) {
+			tracer.entityCreated(entity);
+		}
 		return entity;
 	}
 	
+	/**
+	 * Creates an independent copy of this game, for example to explore possible moves.
+	 * The copy has the same entities with the same ids, the same state of its {@link Random}, the same game state,
+	 * the same systems and the same event handlers.
+	 * <p>
+	 * Components are not copied up front. Components implementing {@link CopyableComponent} or {@link ForkableComponent} are shared
+	 * between both games until one of them retrieves the component from the entity, at which point that game
+	 * gets its own copy. All other components are shared by both games and must therefore not be modified.
+	 * <p>
+	 * Systems implementing {@link CopyableSystem} are copied, the copies are injected with the families and singletons
+	 * of the fork and their {@link net.zomis.lachesis.events.Subscribe} methods replace all handlers identified by the original system.
+	 * Other systems and handlers are shared with the copy, so they should reach the game through the event or entity
+	 * they are handling instead of through their own fields. Families are recreated for the copy,
+	 * get them through {@link #getFamily(Class...)} on the copy. Events queued in deferred mode are not copied.
+	 * 
+	 * @return A new game that initially has the same state as this game
+	 * @throws IllegalStateException If a system that is not copyable has fields injected with families or singletons of this game
+	 */
+	public Game fork() {
+		for (GameSystem system : systems) {
+			if (!(system instanceof CopyableSystem) && Retrievers.injectsGameState(system.getClass())) {
+				throw new IllegalStateException("Unable to fork a game with " + system + ", which has fields injected with the state of the game but is not a CopyableSystem");
+			}
+		}
+		Game fork = new Game(storageMode, structureLock != null);
+		fork.events.copyHandlers(events);
+		fork.updatePool = updatePool;
+		fork.forked = true;
+		this.forked = true;
+		fork.random.copyState(random);
+		fork.entities.copyIds(entities);
+		fork.gameState = gameState;
+		fork.singletons.trackSameTypes(singletons);
+		entities.forEach(entity -> {
+			Entity copy = new Entity(fork, entity.getId(), entity.getGeneration());
+			fork.entities.put(copy);
+			copy.attach();
+			entity.forkInto(copy);
+		});
+		for (EntityFamily family : families.values()) {
+			fork.getFamily(family.getAll(), family.getNone());
+		}
+		for (GameSystem system : systems) {
+			fork.systems.add(system instanceof CopyableSystem ? fork.copySystem((CopyableSystem) system) : system);
+		}
+		return fork;
+	}
+
+	private GameSystem copySystem(CopyableSystem system) {
+		GameSystem copy = system.copy(this);
+		if (copy.getClass() != system.getClass()) {
+			throw new IllegalStateException("Copy of " + system + " is not of the same class: " + copy);
+		}
+		events.removeListenersWithIdentifier(system);
+		Retrievers.inject(copy, this);
+		events.registerSubscribers(copy);
+		return copy;
+	}
+	
 	/**
 	 * Executes an event while performing something in the middle of executing the event.
 	 * It will first do an event for listeners that have registered before, then
@@ -91,7 +291,199 @@ public final class Game {
 	 * @return All entities that contain the component
 	 */
 	public Set<Entity> getEntitiesWithComponent(Class<? extends Component> clazz) {
-		return entities.values().stream().filter(e -> e.hasComponent(clazz)).collect(Collectors.toSet());
+		return locked(() -> {
+			EntitySet matching = index.get(ComponentType.idOf(clazz));
+			Set<Entity> result = new HashSet<>(Math.max(16, matching.size() * 4 / 3 + 1));
+			matching.forEach(result::add);
+			return result;
+		});
+	}
+
+	/**
+	 * Performs an action while holding the structure lock, if this game is concurrent
+	 */
+	private <T> T locked(Supplier<T> action) {
+		if (structureLock == null) {
+			return action.get();
+		}
+		synchronized (structureLock) {
+			return action.get();
+		}
+	}
+
+	Object getStructureLock() {
+		return structureLock;
+	}
+
+	/**
+	 * Gets the only component of a type in this game.
+	 * After the first call for a component type, the game keeps track of the entity holding it,
+	 * so later calls take constant time, and adding the component to a second entity fails.
+	 * 
+	 * @param <T> The component type
+	 * @param clazz The component class
+	 * @return The only component of the type
+	 * @throws IllegalStateException If there is not exactly one entity with the component
+	 */
+	public <T extends Component> T getSingleton(Class<T> clazz) {
+		if (structureLock != null) {
+			synchronized (structureLock) {
+				return singletons.get(clazz, index);
+			}
+		}
+		return singletons.get(clazz, index);
+	}
+
+	/**
+	 * Performs an action for each component of a type, together with the entity that has it.
+	 * In {@link StorageMode#COLUMN} this is a linear sweep over the packed component column.
+	 * Components must not be added or removed while iterating.
+	 * <p>
+	 * In a concurrent game the components are collected while holding the structure lock
+	 * and the action is performed after releasing it, so the action may see components that have been removed since.
+	 * 
+	 * @param <T> The component type
+	 * @param clazz The component class to iterate over
+	 * @param action The action to perform for each entity and component
+	 */
+	public <T extends Component> void forEachComponent(Class<T> clazz, BiConsumer<Entity, ? super T> action) {
+		int typeId = ComponentType.idOf(clazz);
+		if (structureLock == null) {
+			store.forEach(typeId, index, (entity, component) -> {
+				Component current = component.isShared() ? entity.unshare(typeId, component) : component;
+				action.accept(entity, clazz.cast(current));
+			});
+			return;
+		}
+		List<Entity> holders = new ArrayList<>();
+		List<Component> components = new ArrayList<>();
+		synchronized (structureLock) {
+			store.forEach(typeId, index, (entity, component) -> {
+				holders.add(entity);
+				components.add(component);
+			});
+		}
+		for (int i = 0; i < holders.size(); i++) {
+			Entity entity = holders.get(i);
+			Component component = components.get(i);
+			Component current = component.isShared() ? entity.unshare(typeId, component) : component;
+			action.accept(entity, clazz.cast(current));
+		}
+	}
+
+	/**
+	 * 
+	 * @param classes The components to search for, at least one
+	 * @return All entities that contain all of the components
+	 */
+	@SafeVarargs
+	public final Set<Entity> getEntitiesWithComponents(Class<? extends Component>... classes) {
+		int[] all = new int[classes.length];
+		for (int i = 0; i < classes.length; i++) {
+			all[i] = ComponentType.idOf(classes[i]);
+		}
+		return locked(() -> {
+			Set<Entity> result = new HashSet<>();
+			index.forEachMatching(all, new int[0], result::add);
+			return result;
+		});
+	}
+
+	/**
+	 * 
+	 * @param all The components that an entity must have, at least one
+	 * @param none The components that an entity must not have
+	 * @return All entities that contain all of the components in all and none of the components in none
+	 */
+	public Set<Entity> getEntitiesWithComponents(Collection<Class<? extends Component>> all, Collection<Class<? extends Component>> none) {
+		int[] allIds = typeIds(all);
+		int[] noneIds = typeIds(none);
+		return locked(() -> {
+			Set<Entity> result = new HashSet<>();
+			index.forEachMatching(allIds, noneIds, result::add);
+			return result;
+		});
+	}
+
+	private static int[] typeIds(Collection<Class<? extends Component>> classes) {
+		return classes.stream().mapToInt(ComponentType::idOf).toArray();
+	}
+
+	/**
+	 * 
+	 * @param classes The components that an entity must have, at least one
+	 * @return A live family of all entities that contain all of the components
+	 */
+	@SafeVarargs
+	public final EntityFamily getFamily(Class<? extends Component>... classes) {
+		int[] all = new int[classes.length];
+		for (int i = 0; i < classes.length; i++) {
+			all[i] = ComponentType.idOf(classes[i]);
+		}
+		return getFamily(all, new int[0]);
+	}
+
+	/**
+	 * Gets a family of entities which is kept up to date as components are added and removed.
+	 * The family is created the first time it is requested, later requests return the same family.
+	 * 
+	 * @param all The components that an entity must have, at least one
+	 * @param none The components that an entity must not have
+	 * @return A live family of all entities that contain all of the components in all and none of the components in none
+	 */
+	public EntityFamily getFamily(Collection<Class<? extends Component>> all, Collection<Class<? extends Component>> none) {
+		return getFamily(typeIds(all), typeIds(none));
+	}
+
+	private EntityFamily getFamily(int[] all, int[] none) {
+		if (all.length == 0) {
+			throw new IllegalArgumentException("At least one required component type must be specified");
+		}
+		int[] sortedAll = IntStream.of(all).sorted().distinct().toArray();
+		int[] sortedNone = IntStream.of(none).sorted().distinct().toArray();
+		return locked(() -> getFamily(Arrays.toString(sortedAll) + Arrays.toString(sortedNone), sortedAll, sortedNone));
+	}
+
+	private EntityFamily getFamily(String key, int[] all, int[] none) {
+		EntityFamily family = families.get(key);
+		if (family != null) {
+			return family;
+		}
+		EntityFamily created = new EntityFamily(all, none);
+		index.forEachMatching(all, none, entity -> created.update(entity, index));
+		IntStream.concat(IntStream.of(all), IntStream.of(none)).forEach(typeId -> familiesFor(typeId).add(created));
+		families.put(key, created);
+		return created;
+	}
+
+	/**
+	 * @return The result positions that have not been given to any player of this game yet.
+	 * Forks of this game have their own standings.
+	 */
+	public Standings getStandings() {
+		return locked(() -> {
+			if (standings == null) {
+				standings = new Standings(this);
+			}
+			return standings;
+		});
+	}
+
+	private List<EntityFamily> familiesFor(int typeId) {
+		if (typeId >= familiesByType.length) {
+			List<EntityFamily>[] grown = newFamilyLists(Math.max(typeId + 1, ComponentType.count()));
+			System.arraycopy(familiesByType, 0, grown, 0, familiesByType.length);
+			familiesByType = grown;
+		}
+		if (familiesByType[typeId] == null) {
+			familiesByType[typeId] = new ArrayList<>();
+		}
+		return familiesByType[typeId];
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static List<EntityFamily>[] newFamilyLists(int size) {
+		return new List[size];
 	}
 
 	/**
@@ -103,18 +495,32 @@ public final class Game {
 	}
 
 	/**
-	 * Add a system to the systems list.
+	 * Add a system to the systems list, inject its retrievers and register its {@link net.zomis.lachesis.events.Subscribe} methods.
 	 * If the game is in any other state besides NOT_STARTED, the system will be started
 	 * 
 	 * @param system The ECSSystem to add
 	 */
 	public void addSystem(GameSystem system) {
-		logger.info("Add system: " + system);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Add system: " + system);
+		}
 		this.systems.add(system);
+		this.schedule = null;
 		Retrievers.inject(system, this);
+		events.registerSubscribers(system);
 		if (gameState != GameState.NOT_STARTED) {
+			startSystem(system);
+		}
+	}
+
+	private void startSystem(GameSystem system) {
+		if (metrics == null) {
 			system.startGame(this);
+			return;
 		}
+		long start = System.nanoTime();
+		system.startGame(this);
+		metrics.systemStarted(system, System.nanoTime() - start);
 	}
 	
 	/**
@@ -126,11 +532,218 @@ public final class Game {
 		if (gameState != GameState.NOT_STARTED) {
 			throw new IllegalStateException("Game is already started");
 		}
-		systems.forEach(sys -> sys.startGame(this));
-		gameState = GameState.RUNNING;
+		if (injectOnStart) {
+			injectOnStart = false;
+			for (GameSystem system : systems) {
+				if (Retrievers.injectsGameState(system.getClass())) {
+					Retrievers.inject(system, this);
+				}
+			}
+		}
+		systems.forEach(this::startSystem);
+		setGameState(GameState.RUNNING);
 		events.executePostEvent(new StartGameEvent(this));
 	}
 
+	/**
+	 * Makes this game like a new game with the same systems, event handlers and settings, so that it can be played again.
+	 * All entities are removed without firing any events, waiting deferred events are discarded,
+	 * the journal is cleared and the state is set to NOT_STARTED. Ids are allocated from 1 again,
+	 * with new generations so that handles from before the reset do not find the new entities.
+	 * <p>
+	 * Fields of systems annotated with {@link net.zomis.lachesis.retrievers.RetrieverSingleton} or
+	 * {@link net.zomis.lachesis.retrievers.Family} are injected again when the game is started,
+	 * so that no system keeps a component from before the reset, and singletons must be added again before that.
+	 * Until then, such fields must not be used. Systems are started again by {@link #startGame()},
+	 * so they should register their event handlers when they are added rather than when they are started.
+	 * When pooling, the removed entities and components are reused.
+	 * 
+	 * @param seed The seed for the random generator
+	 * @see GamePool
+	 */
+	public void reset(long seed) {
+		// the event executor is always locked before the structure lock, never while holding it
+		events.clearQueue();
+		if (structureLock != null) {
+			synchronized (structureLock) {
+				resetGame(seed);
+			}
+			return;
+		}
+		resetGame(seed);
+	}
+
+	private void resetGame(long seed) {
+		if (gameState != GameState.NOT_STARTED) {
+			setGameState(GameState.NOT_STARTED);
+		}
+		clearEntities();
+		random.setSeed(seed);
+		injectOnStart = true;
+	}
+
+	/**
+	 * Updates each {@link UpdatableSystem} once. Systems that declare component types that do not conflict
+	 * are updated in parallel, except in games that have been forked or are forks of another game,
+	 * as retrieving a component shared with another game replaces it.
+	 */
+	public void update() {
+		if (gameState != GameState.RUNNING) {
+			throw new IllegalStateException("Game is not running");
+		}
+		if (schedule == null) {
+			schedule = SystemSchedule.of(systems);
+		}
+		schedule.update(this, forked ? null : updatePool, metrics);
+	}
+
+	/**
+	 * Reports the time taken by events, handlers and systems of this game to a listener.
+	 * Forks of this game do not report to the listener.
+	 *
+	 * @param metrics The listener to report to, or null to stop measuring
+	 */
+	public void setMetrics(MetricsListener metrics) {
+		this.metrics = metrics;
+		events.setMetrics(metrics);
+	}
+
+	public MetricsListener getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Reports events, handlers, created and destroyed entities and changes of the game state to a tracer.
+	 * Forks of this game do not report to the tracer.
+	 *
+	 * @param tracer The tracer to report to, or null to stop tracing
+	 */
+	public void setTracer(Tracer tracer) {
+		this.tracer = tracer;
+		events.setTracer(tracer);
+	}
+
+	public Tracer getTracer() {
+		return tracer;
+	}
+
+	/**
+	 * Reuses destroyed entities when creating new ones, and the entities removed by {@link #reset(long)}.
+	 * An entity is not reused while journaling, as the journal may restore it, and is only reused once no event
+	 * is executing or waiting in the queue, so that handlers of the events that reference it see the removed entity.
+	 * When pooling, a destroyed entity must not be used after that, as it may have become another entity.
+	 * This includes events kept by monitors, and entities kept in fields of systems.
+	 * Pooling is not supported in concurrent games.
+	 * 
+	 * @param pooling Whether or not to reuse destroyed entities
+	 */
+	public void setPooling(boolean pooling) {
+		if (pooling && structureLock != null) {
+			throw new UnsupportedOperationException("Concurrent games do not support pooling");
+		}
+		if (pooling != isPooling()) {
+			this.entityPool = pooling ? new ArrayDeque<>() : null;
+			this.removedEntities = pooling ? new ArrayDeque<>() : null;
+		}
+	}
+
+	public boolean isPooling() {
+		return entityPool != null;
+	}
+
+	/**
+	 * Returns components of the class of a pool to the pool when they are removed from entities of this game,
+	 * which includes when entities are destroyed and when the game is reset.
+	 * Components are not returned while journaling, nor in games that have been forked or are forks of another game.
+	 * Pooling components is not supported in concurrent games.
+	 * 
+	 * @param pool The pool to return components to
+	 * @see #removeComponentPool(Class)
+	 */
+	public void setComponentPool(ComponentPool<?> pool) {
+		if (structureLock != null) {
+			throw new UnsupportedOperationException("Concurrent games do not support pooling");
+		}
+		int typeId = ComponentType.idOf(pool.getType());
+		if (typeId >= componentPools.length) {
+			componentPools = Arrays.copyOf(componentPools, Math.max(typeId + 1, ComponentType.count()));
+		}
+		componentPools[typeId] = pool;
+	}
+
+	public void removeComponentPool(Class<? extends Component> type) {
+		int typeId = ComponentType.idOf(type);
+		if (typeId < componentPools.length) {
+			componentPools[typeId] = null;
+		}
+	}
+
+	/**
+	 * @param pool The pool to update systems in parallel on, or null to always update them on the calling thread.
+	 * The common pool is used by default.
+	 */
+	public void setUpdatePool(ForkJoinPool pool) {
+		this.updatePool = pool;
+	}
+
+	/**
+	 * Performs an action for each entity of a family, in parallel on the update pool.
+	 * The family is split into chunks of neighbouring entities, each processed by one thread.
+	 * The action may read anything and modify the components of the entity it is given, but structural changes
+	 * must be recorded in the command buffer, which is applied to the game after all entities have been processed.
+	 * <p>
+	 * Small families, forked games and games without an update pool are processed on the calling thread.
+	 * 
+	 * @param family The entities to process
+	 * @param action The action to perform for each entity
+	 * @see #setUpdatePool(ForkJoinPool)
+	 */
+	public void forEachParallel(EntityFamily family, BiConsumer<Entity, CommandBuffer> action) {
+		CommandBuffer commands;
+		if (updatePool == null || forked || family.size() < 2 * MIN_PARALLEL_CHUNK) {
+			CommandBuffer buffer = new CommandBuffer();
+			family.forEach(entity -> action.accept(entity, buffer));
+			commands = buffer;
+		}
+		else {
+			int chunk = Math.max(MIN_PARALLEL_CHUNK, family.size() / (updatePool.getParallelism() * 4));
+			commands = updatePool.invoke(new ParallelPass(family.spliterator(), chunk, action));
+		}
+		commands.apply(this);
+	}
+
+	private static final class ParallelPass extends RecursiveTask<CommandBuffer> {
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<Entity> entities;
+		private final int chunk;
+		private final BiConsumer<Entity, CommandBuffer> action;
+
+		ParallelPass(Spliterator<Entity> entities, int chunk, BiConsumer<Entity, CommandBuffer> action) {
+			this.entities = entities;
+			this.chunk = chunk;
+			this.action = action;
+		}
+
+		@Override
+		protected CommandBuffer compute() {
+			if (entities.estimateSize() > chunk) {
+				Spliterator<Entity> prefix = entities.trySplit();
+				if (prefix != null) {
+					ParallelPass first = new ParallelPass(prefix, chunk, action);
+					first.fork();
+					CommandBuffer last = new ParallelPass(entities, chunk, action).compute();
+					CommandBuffer result = first.join();
+					result.addAll(last);
+					return result;
+				}
+			}
+			CommandBuffer buffer = new CommandBuffer();
+			entities.forEachRemaining(entity -> action.accept(entity, buffer));
+			return buffer;
+		}
+	}
+
 	/**
 	 * @return The Random object for this Game instance
 	 */
@@ -142,9 +755,19 @@ public final class Game {
 	 * End the game.
 	 */
 	public void endGame() {
-		this.executeCancellableEvent(new GameOverEvent(this), () -> gameState = GameState.GAME_ENDED);
+		this.executeCancellableEvent(new GameOverEvent(this), () -> setGameState(GameState.GAME_ENDED));
 	}
 	
+	private void setGameState(GameState gameState) {
+		if (journal != null) {
+			journal.gameState(this.gameState);
+		}
+		if (tracer != null) {
+			tracer.stateChanged(this, this.gameState, gameState);
+		}
+		this.gameState = gameState;
+	}
+
 	/**
 	 * @return The current state of the game
 	 */
@@ -165,7 +788,66 @@ public final class Game {
 	 * @param entity The entity to remove
 	 */
 	void removeEntity(Entity entity) {
-		entities.remove(entity.getId());
+		if (journal != null) {
+			entity.forEachComponentType(typeId -> journal.componentRemoved(entity, typeId, store.get(entity, typeId)));
+			journal.entityDestroyed(entity);
+		}
+		if (tracer != null) {
+			tracer.entityDestroyed(entity);
+		}
+		entities.remove(entity);
+		entity.forEachComponentType(typeId -> {
+			index.removed(entity, typeId);
+			singletons.removed(entity, typeId);
+			if (typeId < familiesByType.length && familiesByType[typeId] != null) {
+				familiesByType[typeId].forEach(family -> family.remove(entity));
+			}
+			if (journal == null) {
+				freeComponent(typeId, store.get(entity, typeId));
+			}
+		});
+	}
+
+	ComponentStore getStore() {
+		return store;
+	}
+
+	void componentAdded(Entity entity, int typeId, Component previous) {
+		if (previous == null) {
+			if (!singletons.added(entity, typeId)) {
+				store.remove(entity, typeId);
+				throw new IllegalStateException("Expected to find exactly one " + ComponentType.of(typeId).getType().getSimpleName() + ", found 2");
+			}
+			index.added(entity, typeId);
+			updateFamilies(entity, typeId);
+		}
+		if (journal != null) {
+			journal.componentAdded(entity, typeId, previous);
+		}
+	}
+
+	void componentRemoved(Entity entity, int typeId, Component removed) {
+		index.removed(entity, typeId);
+		singletons.removed(entity, typeId);
+		updateFamilies(entity, typeId);
+		if (journal != null) {
+			journal.componentRemoved(entity, typeId, removed);
+		}
+		else {
+			freeComponent(typeId, removed);
+		}
+	}
+
+	private void updateFamilies(Entity entity, int typeId) {
+		if (typeId >= familiesByType.length) {
+			return;
+		}
+		List<EntityFamily> affected = familiesByType[typeId];
+		if (affected != null) {
+			for (int i = 0; i < affected.size(); i++) {
+				affected.get(i).update(entity, index);
+			}
+		}
 	}
 
 	/**
@@ -173,7 +855,12 @@ public final class Game {
 	 * @return A list of matching entities.
 	 */
 	public List<Entity> findEntities(Predicate<Entity> condition) {
-		return entities.values().stream().filter(condition).collect(Collectors.toList());
+		List<Entity> all = locked(() -> {
+			List<Entity> result = new ArrayList<>(entities.size());
+			entities.forEach(result::add);
+			return result;
+		});
+		return all.stream().filter(condition).collect(Collectors.toList());
 	}
 
 	/**
@@ -193,9 +880,198 @@ public final class Game {
 	 * @return The requested entity object
 	 */
 	public Entity getEntity(int entity) {
+		if (structureLock != null) {
+			synchronized (structureLock) {
+				return entities.get(entity);
+			}
+		}
 		return entities.get(entity);
 	}
+
+	/**
+	 * @param handle The handle of an entity, as given by {@link Entity#getHandle()}
+	 * @return The entity, or null if it has been destroyed
+	 */
+	public Entity getEntityByHandle(long handle) {
+		Entity entity = getEntity((int) handle);
+		return entity != null && entity.getGeneration() == (int) (handle >>> 32) ? entity : null;
+	}
 	
+	/**
+	 * Starts or stops recording changes to this game, so that they can be undone with {@link #rollback(int)}.
+	 * The journal records entities being created and destroyed, components being added and removed,
+	 * game state transitions and the changes recorded with {@link #recordUndo(Runnable)}.
+	 * Stopping discards everything that has been recorded.
+	 * 
+	 * @param journaling Whether or not to record changes
+	 */
+	public void setJournaling(boolean journaling) {
+		this.journal = journaling ? new Journal() : null;
+	}
+
+	public boolean isJournaling() {
+		return journal != null;
+	}
+
+	/**
+	 * Marks the current state of the game, including the state of its {@link Random}, so that it can be restored later.
+	 * 
+	 * @return The mark to pass to {@link #rollback(int)}
+	 * @throws IllegalStateException If journaling is not enabled
+	 */
+	public int mark() {
+		if (journal == null) {
+			throw new IllegalStateException("Journaling must be enabled to mark the game");
+		}
+		int mark = journal.size();
+		GameRandom snapshot = new GameRandom();
+		snapshot.copyState(random);
+		journal.random(snapshot);
+		return mark;
+	}
+
+	/**
+	 * Undoes all changes made after a mark, in reverse order. No events are fired while rolling back.
+	 * Takes time proportional to the number of changes, marks made after this mark can no longer be used.
+	 * 
+	 * @param mark The mark returned from {@link #mark()}
+	 */
+	public void rollback(int mark) {
+		if (journal == null) {
+			throw new IllegalStateException("Journaling must be enabled to roll back the game");
+		}
+		journal.rollback(mark, this);
+	}
+
+	/**
+	 * Records how to undo a change that the journal can not see by itself, such as changing a field of a component.
+	 * Does nothing when journaling is not enabled.
+	 * 
+	 * @param undo What to do to undo the change
+	 */
+	public void recordUndo(Runnable undo) {
+		if (journal != null) {
+			journal.custom(undo);
+		}
+	}
+
+	void clearJournal() {
+		if (journal != null) {
+			journal.clear();
+		}
+	}
+
+	/**
+	 * Removes all entities without firing any events and without journaling
+	 */
+	void clearEntities() {
+		Journal currentJournal = journal;
+		journal = null;
+		entities.forEach(entity -> {
+			entity.forEachComponentType(typeId -> {
+				index.removed(entity, typeId);
+				singletons.removed(entity, typeId);
+				freeComponent(typeId, store.get(entity, typeId));
+			});
+			store.clear(entity);
+			entity.detach();
+			recycle(entity);
+		});
+		entities.clear();
+		families.values().forEach(EntityFamily::clear);
+		journal = currentJournal;
+		clearJournal();
+	}
+
+	/**
+	 * Creates an entity with a specific id, without journaling
+	 */
+	Entity createEntity(int id) {
+		Entity entity = entityFor(id);
+		entities.put(entity);
+		entity.attach();
+		return entity;
+	}
+
+	private Entity entityFor(int id) {
+		if (entityPool == null) {
+			return new Entity(this, id, entities.generation(id));
+		}
+		releaseRemovedEntities();
+		Entity pooled = entityPool.poll();
+		if (pooled == null) {
+			return new Entity(this, id, entities.generation(id));
+		}
+		pooled.reuse(id, entities.generation(id));
+		return pooled;
+	}
+
+	/**
+	 * Keeps a removed entity for reuse, if pooling and the journal can not restore the entity
+	 */
+	void recycle(Entity entity) {
+		if (entityPool != null && journal == null && entity.pool()) {
+			(events.isIdle() ? entityPool : removedEntities).add(entity);
+		}
+	}
+
+	/**
+	 * Makes removed entities available for reuse, unless an event that may reference them is executing or queued
+	 */
+	void releaseRemovedEntities() {
+		if (removedEntities != null && !removedEntities.isEmpty() && events.isIdle()) {
+			entityPool.addAll(removedEntities);
+			removedEntities.clear();
+		}
+	}
+
+	private void freeComponent(int typeId, Component component) {
+		if (!forked && typeId < componentPools.length && componentPools[typeId] != null) {
+			componentPools[typeId].free(component);
+		}
+	}
+
+	EntityTable getEntityTable() {
+		return entities;
+	}
+
+	ComponentIndex getIndex() {
+		return index;
+	}
+
+	GameRandom getRandomState() {
+		return random;
+	}
+
+	void discardComponent(Entity entity, int typeId) {
+		Component removed = store.remove(entity, typeId);
+		if (removed != null) {
+			componentRemoved(entity, typeId, removed);
+		}
+	}
+
+	void restoreComponent(Entity entity, int typeId, Component component) {
+		componentAdded(entity, typeId, store.put(entity, typeId, component));
+	}
+
+	void discardEntity(Entity entity, int previousLastId) {
+		entities.discard(entity, previousLastId);
+		entity.detach();
+	}
+
+	void restoreEntity(Entity entity) {
+		entity.reattach();
+		entities.restore(entity);
+	}
+
+	void restoreGameState(GameState gameState) {
+		this.gameState = gameState;
+	}
+
+	void restoreRandom(GameRandom snapshot) {
+		random.copyState(snapshot);
+	}
+
 	/**
 	 * Sets a new seed for the random object.
 	 * 
@@ -225,8 +1101,11 @@ public final class Game {
 	 * @return Whether or not the system was successfully removed
 	 */
 	public boolean removeSystem(GameSystem system) {
-		logger.info("Remove system " + system);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Remove system " + system);
+		}
 		events.removeListenersWithIdentifier(system);
+		this.schedule = null;
 		return systems.remove(system);
 	}
 	
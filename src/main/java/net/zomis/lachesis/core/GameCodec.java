@@ -0,0 +1,241 @@
+package net.zomis.lachesis.core;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.io.ComponentCodec;
+
+/**
+ * Binary serialization of the state of a game: its entities, components, game state and random state.
+ * Every component type in a game must have a registered codec with a schema id, which is written instead of the class name.
+ * Entity ids are written as variable length deltas, and components are written in one block per component type.
+ * The generations and the freed ids are also saved, so that a restored game reuses ids the same way as the saved game.
+ * <p>
+ * Systems and event handlers are not part of the saved state. To restore a game, set up a new game the same way
+ * as the saved game, then {@link #read(BinaryInput, Game)} replaces its entities and state with the saved ones.
+ *
+ * @author Simon Forsberg
+ */
+public final class GameCodec {
+
+	private static final int MAGIC = 0x4C414348;
+	private static final int VERSION = 2;
+
+	private static final class Schema {
+		private final int schemaId;
+		private final ComponentType type;
+		private final ComponentCodec<Component> codec;
+
+		@SuppressWarnings("unchecked")
+		Schema(int schemaId, ComponentType type, ComponentCodec<?> codec) {
+			this.schemaId = schemaId;
+			this.type = type;
+			this.codec = (ComponentCodec<Component>) codec;
+		}
+	}
+
+	private final Map<Integer, Schema> bySchemaId = new HashMap<>();
+	private Schema[] byTypeId = new Schema[0];
+
+	/**
+	 * @param <T> The component type
+	 * @param schemaId The id to write for the component type, must never change between saving and loading
+	 * @param clazz The component class
+	 * @param codec How to write and read the component
+	 * @return This codec
+	 */
+	public <T extends Component> GameCodec register(int schemaId, Class<T> clazz, ComponentCodec<T> codec) {
+		if (bySchemaId.containsKey(schemaId)) {
+			throw new IllegalArgumentException("Schema id " + schemaId + " is already used by " + bySchemaId.get(schemaId).type);
+		}
+		ComponentType type = ComponentType.of(clazz);
+		Schema schema = new Schema(schemaId, type, codec);
+		if (type.getId() >= byTypeId.length) {
+			byTypeId = Arrays.copyOf(byTypeId, type.getId() + 1);
+		}
+		if (byTypeId[type.getId()] != null) {
+			throw new IllegalArgumentException(clazz + " is already registered with schema id " + byTypeId[type.getId()].schemaId);
+		}
+		byTypeId[type.getId()] = schema;
+		bySchemaId.put(schemaId, schema);
+		return this;
+	}
+
+	/**
+	 * Writes the state of a game
+	 * 
+	 * @param game The game to write
+	 * @param out The output to write to
+	 */
+	public void write(Game game, BinaryOutput out) {
+		ComponentIndex index = game.getIndex();
+		int typeCount = ComponentType.count();
+		for (int typeId = 0; typeId < typeCount; typeId++) {
+			if (!index.get(typeId).isEmpty() && (typeId >= byTypeId.length || byTypeId[typeId] == null)) {
+				throw new IllegalStateException("No codec registered for " + ComponentType.of(typeId).getType());
+			}
+		}
+
+		out.writeInt(MAGIC);
+		out.writeVarInt(VERSION);
+		out.writeByte(game.getGameState().ordinal());
+		game.getRandomState().write(out);
+		EntityTable entities = game.getEntityTable();
+		out.writeVarInt(entities.getLastId());
+		for (int id = 1; id <= entities.getLastId(); id++) {
+			out.writeVarInt(entities.generation(id));
+		}
+		int[] freeIds = entities.getFreeIds();
+		out.writeVarInt(freeIds.length);
+		for (int id : freeIds) {
+			out.writeVarInt(id);
+		}
+
+		out.writeVarInt(entities.size());
+		int[] previousId = new int[1];
+		entities.forEach(entity -> {
+			out.writeVarInt(entity.getId() - previousId[0]);
+			previousId[0] = entity.getId();
+		});
+
+		int blocks = 0;
+		for (Schema schema : byTypeId) {
+			if (schema != null && !index.get(schema.type.getId()).isEmpty()) {
+				blocks++;
+			}
+		}
+		out.writeVarInt(blocks);
+		for (Schema schema : byTypeId) {
+			if (schema != null && !index.get(schema.type.getId()).isEmpty()) {
+				writeBlock(game, schema, out);
+			}
+		}
+	}
+
+	private void writeBlock(Game game, Schema schema, BinaryOutput out) {
+		int typeId = schema.type.getId();
+		EntitySet holders = game.getIndex().get(typeId);
+		Entity[] sorted = new Entity[holders.size()];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = holders.get(i);
+		}
+		Arrays.sort(sorted, Comparator.comparingInt(Entity::getId));
+
+		out.writeVarInt(schema.schemaId);
+		out.writeVarInt(sorted.length);
+		int previousId = 0;
+		ComponentStore store = game.getStore();
+		for (Entity entity : sorted) {
+			out.writeVarInt(entity.getId() - previousId);
+			previousId = entity.getId();
+			schema.codec.write(store.get(entity, typeId), out);
+		}
+	}
+
+	/**
+	 * Replaces the entities and state of a game with state that was written by {@link #write(Game, BinaryOutput)}.
+	 * No events are fired, and the journal of the game is cleared.
+	 * If the input is not a complete saved game, the game is left partially restored.
+	 * 
+	 * @param in The input to read from
+	 * @param game The game to restore into
+	 * @throws IllegalArgumentException If the input is not a saved game, or ends before the saved game does
+	 */
+	public void read(BinaryInput in, Game game) {
+		try {
+			readGame(in, game);
+		}
+		catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Saved game is truncated at " + in.position(), e);
+		}
+	}
+
+	private void readGame(BinaryInput in, Game game) {
+		if (in.readInt() != MAGIC) {
+			throw new IllegalArgumentException("Not a saved game");
+		}
+		int version = in.readVarInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unsupported version: " + version);
+		}
+		game.clearEntities();
+		game.restoreGameState(GameState.values()[in.readByte()]);
+		GameRandom random = new GameRandom();
+		random.read(in);
+		game.restoreRandom(random);
+		int lastEntityId = in.readVarInt();
+		int[] generations = new int[lastEntityId + 1];
+		for (int i = 1; i <= lastEntityId; i++) {
+			generations[i] = in.readVarInt();
+		}
+		int[] freeIds = new int[in.readVarInt()];
+		for (int i = 0; i < freeIds.length; i++) {
+			freeIds[i] = in.readVarInt();
+		}
+		game.getEntityTable().restoreIds(lastEntityId, generations, freeIds);
+
+		int entityCount = in.readVarInt();
+		int id = 0;
+		for (int i = 0; i < entityCount; i++) {
+			id += in.readVarInt();
+			game.createEntity(id);
+		}
+
+		int blocks = in.readVarInt();
+		for (int block = 0; block < blocks; block++) {
+			int schemaId = in.readVarInt();
+			Schema schema = bySchemaId.get(schemaId);
+			if (schema == null) {
+				throw new IllegalStateException("No codec registered for schema id " + schemaId);
+			}
+			int count = in.readVarInt();
+			int entityId = 0;
+			for (int i = 0; i < count; i++) {
+				entityId += in.readVarInt();
+				Entity entity = game.getEntity(entityId);
+				entity.addComponent(schema.codec.read(in, entity));
+			}
+		}
+		game.clearJournal();
+	}
+
+	/**
+	 * Writes the state of a game to a file, replacing the file if it exists
+	 * 
+	 * @param game The game to write
+	 * @param path The file to write to
+	 * @throws IOException If writing fails
+	 */
+	public void save(Game game, Path path) throws IOException {
+		BinaryOutput out = new BinaryOutput();
+		write(game, out);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			out.writeTo(channel);
+		}
+	}
+
+	/**
+	 * Restores the state of a game from a file written by {@link #save(Game, Path)}, by memory-mapping the file
+	 * 
+	 * @param path The file to read from
+	 * @param game The game to restore into
+	 * @throws IOException If reading fails
+	 */
+	public void load(Path path, Game game) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			read(new BinaryInput(buffer), game);
+		}
+	}
+
+}
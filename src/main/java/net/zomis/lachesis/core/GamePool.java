@@ -0,0 +1,57 @@
+package net.zomis.lachesis.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Games that are reset and played again instead of being created, for running many short games
+ * such as simulations of possible moves. Systems are only added when a game is first created,
+ * see {@link Game#reset(long)} for how they are injected again.
+ * <p>
+ * A pool can be used from several threads, each game must only be used by one thread at a time.
+ *
+ * @author Simon Forsberg
+ */
+public final class GamePool {
+
+	private final Supplier<Game> factory;
+	private final Queue<Game> free = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @param factory Creates a game with its systems and event handlers, for example with {@link Game#setPooling(boolean)} enabled
+	 */
+	public GamePool(Supplier<Game> factory) {
+		this.factory = factory;
+	}
+
+	/**
+	 * @param seed The seed for the random generator of the game
+	 * @return A game that has not been started and has no entities, reset with {@link Game#reset(long)}
+	 */
+	public Game obtain(long seed) {
+		Game game = free.poll();
+		if (game == null) {
+			game = factory.get();
+		}
+		game.reset(seed);
+		return game;
+	}
+
+	/**
+	 * Returns a game to the pool. The game must not be used after this.
+	 * 
+	 * @param game A game obtained from this pool
+	 */
+	public void release(Game game) {
+		free.add(game);
+	}
+
+	/**
+	 * @return The number of games waiting to be reused
+	 */
+	public int size() {
+		return free.size();
+	}
+
+}
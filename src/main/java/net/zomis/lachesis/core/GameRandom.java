@@ -0,0 +1,104 @@
+package net.zomis.lachesis.core;
+
+import java.util.Random;
+
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.BinaryOutput;
+
+/**
+ * A {@link Random} whose internal state can be read and restored, so that a game can be copied
+ * with its random sequence intact. Produces exactly the same numbers as {@link Random} for the same seed.
+ * Unlike {@link Random}, it is only thread-safe when created for a concurrent game.
+ *
+ * @author Simon Forsberg
+ */
+final class GameRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	// not initialized here, as the Random constructor calls setSeed before field initializers would run
+	private long state;
+	private double nextNextGaussian;
+	private boolean haveNextNextGaussian;
+	/**
+	 * True to synchronize every number, for games that are used by several threads at once
+	 */
+	private final boolean concurrent;
+
+	GameRandom() {
+		this(false);
+	}
+
+	GameRandom(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed);
+		this.state = (seed ^ MULTIPLIER) & MASK;
+		this.haveNextNextGaussian = false;
+	}
+
+	@Override
+	protected int next(int bits) {
+		if (concurrent) {
+			synchronized (this) {
+				return advance(bits);
+			}
+		}
+		return advance(bits);
+	}
+
+	private int advance(int bits) {
+		state = (state * MULTIPLIER + ADDEND) & MASK;
+		return (int) (state >>> (48 - bits));
+	}
+
+	@Override
+	public synchronized double nextGaussian() {
+		if (haveNextNextGaussian) {
+			haveNextNextGaussian = false;
+			return nextNextGaussian;
+		}
+		double v1, v2, s;
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		}
+		while (s >= 1 || s == 0);
+		double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+		nextNextGaussian = v2 * multiplier;
+		haveNextNextGaussian = true;
+		return v1 * multiplier;
+	}
+
+	synchronized void write(BinaryOutput out) {
+		out.writeLong(state);
+		out.writeBoolean(haveNextNextGaussian);
+		out.writeDouble(nextNextGaussian);
+	}
+
+	synchronized void read(BinaryInput in) {
+		this.state = in.readLong();
+		this.haveNextNextGaussian = in.readBoolean();
+		this.nextNextGaussian = in.readDouble();
+	}
+
+	/**
+	 * Copies the state of another random, so that both produce the same numbers from now on
+	 */
+	synchronized void copyState(GameRandom other) {
+		synchronized (other) {
+			this.state = other.state;
+			this.nextNextGaussian = other.nextNextGaussian;
+			this.haveNextNextGaussian = other.haveNextNextGaussian;
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+
+/**
+ * Append-only log of the changes made to a game, used to roll the game back to an earlier mark.
+ * Each entry is a kind, an entity, a value and a number, stored in parallel arrays.
+ *
+ * @author Simon Forsberg
+ */
+final class Journal {
+
+	private static final byte CUSTOM = 0;
+	private static final byte COMPONENT_ADDED = 1;
+	private static final byte COMPONENT_REMOVED = 2;
+	private static final byte ENTITY_CREATED = 3;
+	private static final byte ENTITY_DESTROYED = 4;
+	private static final byte GAME_STATE = 5;
+	private static final byte RANDOM = 6;
+
+	private byte[] kinds = new byte[64];
+	private Entity[] entities = new Entity[64];
+	private Object[] values = new Object[64];
+	private int[] numbers = new int[64];
+	private int size;
+	private boolean rollingBack;
+
+	private void append(byte kind, Entity entity, Object value, int number) {
+		if (rollingBack) {
+			return;
+		}
+		if (size == kinds.length) {
+			int capacity = size * 2;
+			kinds = Arrays.copyOf(kinds, capacity);
+			entities = Arrays.copyOf(entities, capacity);
+			values = Arrays.copyOf(values, capacity);
+			numbers = Arrays.copyOf(numbers, capacity);
+		}
+		kinds[size] = kind;
+		entities[size] = entity;
+		values[size] = value;
+		numbers[size] = number;
+		size++;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void custom(Runnable undo) {
+		append(CUSTOM, null, undo, 0);
+	}
+
+	void componentAdded(Entity entity, int typeId, Component previous) {
+		append(COMPONENT_ADDED, entity, previous, typeId);
+	}
+
+	void componentRemoved(Entity entity, int typeId, Component removed) {
+		append(COMPONENT_REMOVED, entity, removed, typeId);
+	}
+
+	void entityCreated(Entity entity, int previousLastId) {
+		append(ENTITY_CREATED, entity, null, previousLastId);
+	}
+
+	void entityDestroyed(Entity entity) {
+		append(ENTITY_DESTROYED, entity, null, 0);
+	}
+
+	void gameState(GameState previous) {
+		append(GAME_STATE, null, previous, 0);
+	}
+
+	void random(GameRandom snapshot) {
+		append(RANDOM, null, snapshot, 0);
+	}
+
+	/**
+	 * Undoes all changes after a mark, latest first, and removes them from the journal
+	 */
+	void rollback(int mark, Game game) {
+		if (mark < 0 || mark > size) {
+			throw new IllegalArgumentException("Mark " + mark + " is not in the journal, size is " + size);
+		}
+		rollingBack = true;
+		try {
+			while (size > mark) {
+				size--;
+				undo(kinds[size], entities[size], values[size], numbers[size], game);
+				entities[size] = null;
+				values[size] = null;
+			}
+		}
+		finally {
+			rollingBack = false;
+		}
+	}
+
+	private void undo(byte kind, Entity entity, Object value, int number, Game game) {
+		switch (kind) {
+			case CUSTOM:
+				((Runnable) value).run();
+				break;
+			case COMPONENT_ADDED:
+				if (value == null) {
+					game.discardComponent(entity, number);
+				}
+				else {
+					game.getStore().put(entity, number, (Component) value);
+				}
+				break;
+			case COMPONENT_REMOVED:
+				game.restoreComponent(entity, number, (Component) value);
+				break;
+			case ENTITY_CREATED:
+				game.discardEntity(entity, number);
+				break;
+			case ENTITY_DESTROYED:
+				game.restoreEntity(entity);
+				break;
+			case GAME_STATE:
+				game.restoreGameState((GameState) value);
+				break;
+			case RANDOM:
+				game.restoreRandom((GameRandom) value);
+				break;
+			default:
+				throw new IllegalStateException("Unknown journal entry: " + kind);
+		}
+	}
+
+	void clear() {
+		Arrays.fill(entities, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+
+}
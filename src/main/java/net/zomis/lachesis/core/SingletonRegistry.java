@@ -0,0 +1,71 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the entity holding each singleton component type of a game.
+ * A component type becomes a singleton the first time it is looked up as one,
+ * after that adding it to a second entity fails.
+ *
+ * @author Simon Forsberg
+ */
+final class SingletonRegistry {
+
+	private boolean[] tracked = new boolean[0];
+	private Entity[] holders = new Entity[0];
+
+	<T extends Component> T get(Class<T> clazz, ComponentIndex index) {
+		int typeId = ComponentType.idOf(clazz);
+		if (typeId >= tracked.length || !tracked[typeId]) {
+			track(clazz, typeId, index);
+		}
+		Entity holder = holders[typeId];
+		if (holder == null) {
+			throw new IllegalStateException("Expected to find exactly one " + clazz.getSimpleName() + ", found 0");
+		}
+		return clazz.cast(holder.getComponent(typeId));
+	}
+
+	private void track(Class<?> clazz, int typeId, ComponentIndex index) {
+		EntitySet all = index.get(typeId);
+		if (all.size() > 1) {
+			throw new IllegalStateException("Expected to find exactly one " + clazz.getSimpleName() + ", found " + all.size());
+		}
+		if (typeId >= tracked.length) {
+			int size = Math.max(typeId + 1, ComponentType.count());
+			tracked = Arrays.copyOf(tracked, size);
+			holders = Arrays.copyOf(holders, size);
+		}
+		tracked[typeId] = true;
+		holders[typeId] = all.isEmpty() ? null : all.get(0);
+	}
+
+	/**
+	 * Tracks the same component types as another registry. Must be called before any components are added.
+	 */
+	void trackSameTypes(SingletonRegistry other) {
+		this.tracked = other.tracked.clone();
+		this.holders = new Entity[other.holders.length];
+	}
+
+	/**
+	 * @return True if the entity may have the component, false if another entity already holds the singleton
+	 */
+	boolean added(Entity entity, int typeId) {
+		if (typeId >= tracked.length || !tracked[typeId]) {
+			return true;
+		}
+		if (holders[typeId] != null && holders[typeId] != entity) {
+			return false;
+		}
+		holders[typeId] = entity;
+		return true;
+	}
+
+	void removed(Entity entity, int typeId) {
+		if (typeId < holders.length && holders[typeId] == entity) {
+			holders[typeId] = null;
+		}
+	}
+
+}
@@ -0,0 +1,18 @@
+package net.zomis.lachesis.core;
+
+/**
+ * How a game stores the components of its entities
+ */
+public enum StorageMode {
+	/**
+	 * Each entity keeps its own components, indexed by component type id.
+	 * Fast access to all the components of a single entity.
+	 */
+	ENTITY,
+	/**
+	 * Each component type is kept in a packed column shared by all entities of the game.
+	 * Fast iteration over all components of a single type, see {@link Game#forEachComponent(Class, java.util.function.BiConsumer)}.
+	 * Only entities created through {@link Game#newEntity()} can have components in this mode.
+	 */
+	COLUMN;
+}
@@ -0,0 +1,90 @@
+package net.zomis.lachesis.core;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Guards the components of each entity of a concurrent game by one of a fixed number of locks, chosen by entity id.
+ * Reading a component only contends with changes to entities sharing the same lock.
+ * Changes are also made while holding the structure lock of the game, which is always taken before the striped locks.
+ *
+ * @author Simon Forsberg
+ */
+final class StripedComponentStore extends ComponentStore {
+
+	private static final int STRIPES = 64;
+
+	private final ComponentStore store;
+	private final Object[] locks = new Object[STRIPES];
+
+	StripedComponentStore(ComponentStore store) {
+		this.store = store;
+		for (int i = 0; i < STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	private Object lockFor(Entity entity) {
+		return locks[entity.getId() & (STRIPES - 1)];
+	}
+
+	@Override
+	Component get(Entity entity, int typeId) {
+		synchronized (lockFor(entity)) {
+			return store.get(entity, typeId);
+		}
+	}
+
+	@Override
+	Component put(Entity entity, int typeId, Component component) {
+		synchronized (lockFor(entity)) {
+			return store.put(entity, typeId, component);
+		}
+	}
+
+	@Override
+	Component remove(Entity entity, int typeId) {
+		synchronized (lockFor(entity)) {
+			return store.remove(entity, typeId);
+		}
+	}
+
+	@Override
+	void clear(Entity entity) {
+		synchronized (lockFor(entity)) {
+			store.clear(entity);
+		}
+	}
+
+	@Override
+	void forEachType(Entity entity, IntConsumer action) {
+		// collect first, so that the action does not run while holding the lock
+		EntityTypes types = new EntityTypes();
+		synchronized (lockFor(entity)) {
+			store.forEachType(entity, types::add);
+		}
+		for (int i = 0; i < types.size; i++) {
+			action.accept(types.ids[i]);
+		}
+	}
+
+	@Override
+	void forEach(int typeId, ComponentIndex index, BiConsumer<Entity, Component> action) {
+		// only called while holding the structure lock, which all changes are made under
+		store.forEach(typeId, index, action);
+	}
+
+	private static final class EntityTypes {
+		private int[] ids = new int[8];
+		private int size;
+
+		void add(int typeId) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = typeId;
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package net.zomis.lachesis.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import net.zomis.lachesis.metrics.MetricsListener;
+
+/**
+ * The order in which the updatable systems of a game are updated, as stages of systems that do not conflict with each other.
+ * Each system is placed in the stage after the last stage containing a system that was added before it and that it conflicts with.
+ *
+ * @author Simon Forsberg
+ */
+final class SystemSchedule {
+
+	private static final UpdatableSystem[][] NO_STAGES = new UpdatableSystem[0][];
+
+	private final UpdatableSystem[][] stages;
+
+	private SystemSchedule(UpdatableSystem[][] stages) {
+		this.stages = stages;
+	}
+
+	static SystemSchedule of(List<GameSystem> systems) {
+		List<UpdatableSystem> updatable = new ArrayList<>();
+		for (GameSystem system : systems) {
+			if (system instanceof UpdatableSystem) {
+				updatable.add((UpdatableSystem) system);
+			}
+		}
+		int count = updatable.size();
+		BitSet[] reads = new BitSet[count];
+		BitSet[] writes = new BitSet[count];
+		int[] stageOf = new int[count];
+		List<List<UpdatableSystem>> stages = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			UpdatableSystem system = updatable.get(i);
+			reads[i] = typeIds(system.reads());
+			writes[i] = typeIds(system.writes());
+			int stage = 0;
+			for (int j = 0; j < i; j++) {
+				if (conflicts(reads[i], writes[i], reads[j], writes[j])) {
+					stage = Math.max(stage, stageOf[j] + 1);
+				}
+			}
+			stageOf[i] = stage;
+			if (stage == stages.size()) {
+				stages.add(new ArrayList<>());
+			}
+			stages.get(stage).add(system);
+		}
+		UpdatableSystem[][] result = new UpdatableSystem[stages.size()][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = stages.get(i).toArray(new UpdatableSystem[0]);
+		}
+		return new SystemSchedule(result.length == 0 ? NO_STAGES : result);
+	}
+
+	/**
+	 * @return The type ids of the classes, or null if the classes are not declared
+	 */
+	private static BitSet typeIds(Set<Class<? extends Component>> classes) {
+		if (classes == null) {
+			return null;
+		}
+		BitSet result = new BitSet();
+		for (Class<? extends Component> clazz : classes) {
+			result.set(ComponentType.idOf(clazz));
+		}
+		return result;
+	}
+
+	private static boolean conflicts(BitSet reads, BitSet writes, BitSet otherReads, BitSet otherWrites) {
+		if (reads == null || writes == null || otherReads == null || otherWrites == null) {
+			return true;
+		}
+		return writes.intersects(otherReads) || writes.intersects(otherWrites) || reads.intersects(otherWrites);
+	}
+
+	int getStageCount() {
+		return stages.length;
+	}
+
+	/**
+	 * @param game The game to update
+	 * @param pool The pool to update systems in parallel on, or null to update all systems on the calling thread
+	 * @param metrics The listener to report the time of each update to, or null
+	 */
+	void update(Game game, ForkJoinPool pool, MetricsListener metrics) {
+		for (UpdatableSystem[] stage : stages) {
+			if (stage.length == 1 || pool == null) {
+				for (UpdatableSystem system : stage) {
+					update(system, game, metrics);
+				}
+				continue;
+			}
+			ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[stage.length];
+			for (int i = 0; i < stage.length; i++) {
+				UpdatableSystem system = stage[i];
+				tasks[i] = ForkJoinTask.adapt(() -> update(system, game, metrics));
+			}
+			if (ForkJoinTask.getPool() == pool) {
+				ForkJoinTask.invokeAll(tasks);
+			}
+			else {
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+			}
+		}
+	}
+
+	private static void update(UpdatableSystem system, Game game, MetricsListener metrics) {
+		if (metrics == null) {
+			system.update(game);
+			return;
+		}
+		long start = System.nanoTime();
+		system.update(game);
+		metrics.systemUpdated(system, System.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,34 @@
+package net.zomis.lachesis.core;
+
+import java.util.Set;
+
+/**
+ * A system that is updated every time {@link Game#update()} is called.
+ * <p>
+ * A system that declares which component types it reads and writes may be updated in parallel with other systems
+ * that do not write what it reads or read what it writes. Systems that conflict are updated in the order they were added.
+ * While updated in parallel, a system may only read and modify the components it has declared, and must not
+ * add or remove components, create or destroy entities, execute events or use the random of the game.
+ * A system that does not declare its component types is updated on its own.
+ *
+ * @author Simon Forsberg
+ */
+public interface UpdatableSystem extends GameSystem {
+
+	void update(Game game);
+
+	/**
+	 * @return The component types that this system reads but does not modify, or null if not declared
+	 */
+	default Set<Class<? extends Component>> reads() {
+		return null;
+	}
+
+	/**
+	 * @return The component types that this system modifies, or null if not declared
+	 */
+	default Set<Class<? extends Component>> writes() {
+		return null;
+	}
+
+}
@@ -0,0 +1,122 @@
+package net.zomis.lachesis.events;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An event executor that events can be executed on while other threads register and remove handlers.
+ * Handlers are kept in copy-on-write lists and changes to them are synchronized, while executing an event
+ * only reads handler chains that are never modified once built.
+ * <p>
+ * Deferred events are queued and drained while synchronized on the executor.
+ * Deferred mode should be set before the executor is used by several threads. Events can not be monitored.
+ *
+ * @author Simon Forsberg
+ */
+public class ConcurrentEventExecutor extends EventExecutor {
+
+	public ConcurrentEventExecutor() {
+		super(true);
+	}
+
+	@Override
+	protected Collection<EventHandler<?>> createCollection() {
+		return new CopyOnWriteArrayList<EventHandler<?>>();
+	}
+
+	@Override
+	public synchronized <T extends IEvent> void registerHandler(Class<T> realParam, EventHandler<T> handler) {
+		super.registerHandler(realParam, handler);
+	}
+
+	@Override
+	public synchronized List<EventHandler<?>> registerSubscribers(Object subscriber) {
+		return super.registerSubscribers(subscriber);
+	}
+
+	@Override
+	public synchronized void copyHandlers(EventExecutor other) {
+		super.copyHandlers(other);
+	}
+
+	@Override
+	public synchronized void clearListeners() {
+		super.clearListeners();
+	}
+
+	@Override
+	public synchronized void removeHandler(EventHandler<?> listener) {
+		super.removeHandler(listener);
+	}
+
+	@Override
+	public synchronized void removeListenersWithIdentifier(Object identifier) {
+		super.removeListenersWithIdentifier(identifier);
+	}
+
+	@Override
+	public void setMonitor(EventMonitor monitor) {
+		if (monitor != null) {
+			throw new UnsupportedOperationException("Events of a concurrent executor can not be monitored");
+		}
+	}
+
+	@Override
+	public synchronized void setDeferred(boolean deferred) {
+		super.setDeferred(deferred);
+	}
+
+	@Override
+	public synchronized <T extends IEvent> void setCoalescing(Class<T> eventClass, Function<? super T, ?> key) {
+		super.setCoalescing(eventClass, key);
+	}
+
+	@Override
+	public synchronized int getQueuedEvents() {
+		return super.getQueuedEvents();
+	}
+
+	@Override
+	public synchronized void clearQueue() {
+		super.clearQueue();
+	}
+
+	@Override
+	public <T extends IEvent> T executeEvent(T event, Runnable runInBetween) {
+		if (isDeferred()) {
+			synchronized (this) {
+				return super.executeEvent(event, runInBetween);
+			}
+		}
+		return super.executeEvent(event, runInBetween);
+	}
+
+	@Override
+	public <T extends IEvent> T executeEvent(T event, Consumer<T> runInBetween) {
+		if (isDeferred()) {
+			synchronized (this) {
+				return super.executeEvent(event, runInBetween);
+			}
+		}
+		return super.executeEvent(event, runInBetween);
+	}
+
+	@Override
+	public <T extends CancellableEvent> T executeCancellableEvent(T event, Runnable runInBetween) {
+		if (isDeferred()) {
+			synchronized (this) {
+				return super.executeCancellableEvent(event, runInBetween);
+			}
+		}
+		return super.executeCancellableEvent(event, runInBetween);
+	}
+
+	@Override
+	public synchronized int drain() {
+		return super.drain();
+	}
+
+}
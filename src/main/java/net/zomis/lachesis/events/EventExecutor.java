@@ -1,59 +1,312 @@
 package net.zomis.lachesis.events;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
+import net.zomis.lachesis.metrics.MetricsListener;
+import net.zomis.lachesis.tracing.Tracer;
+
 public class EventExecutor implements EventExecution {
 
 	private static final Logger logger = LogManager.getLogger(EventExecutor.class);
 	
+	private static final EventHandler<?>[] NO_HANDLERS = new EventHandler<?>[0];
+	
 	protected final Map<Class<? extends IEvent>, Collection<EventHandler<?>>> bindings;
 	
+	/**
+	 * Handlers of each concrete event class split into before and after, including the handlers
+	 * registered for its superclasses and interfaces. Built from bindings when first needed
+	 * and discarded whenever handlers are added or removed.
+	 */
+	private final Map<Class<?>, HandlerChain> chains;
+	
+	/**
+	 * True if handlers may be registered while events are executed by other threads
+	 */
+	private final boolean concurrent;
+	
+	private long registrations;
+	// the settings are volatile, as threads executing events in a concurrent executor read them without locking
+	private volatile boolean stopOnCancel;
+	
+	private final EventQueue queue = new EventQueue();
+	private final EventQueue.EventBatch batch = new EventQueue.EventBatch();
+	private volatile boolean deferred;
+	private volatile boolean draining;
+	
+	private EventMonitor monitor;
+	/**
+	 * The number of events being executed, which is only reported to monitors and therefore not kept when concurrent
+	 */
+	private int depth;
+	
+	private volatile MetricsListener metrics;
+	private volatile Tracer tracer;
+	
 	public EventExecutor() {
-		this.bindings = new HashMap<Class<? extends IEvent>, Collection<EventHandler<?>>>();
+		this(false);
+	}
+	
+	/**
+	 * @param concurrent True to use concurrent maps and build handler chains while synchronized on this executor,
+	 * in which case all changes to the handlers must also be synchronized on this executor
+	 */
+	protected EventExecutor(boolean concurrent) {
+		this.concurrent = concurrent;
+		if (concurrent) {
+			this.bindings = new ConcurrentHashMap<Class<? extends IEvent>, Collection<EventHandler<?>>>();
+			this.chains = new ConcurrentHashMap<>();
+		}
+		else {
+			this.bindings = new HashMap<Class<? extends IEvent>, Collection<EventHandler<?>>>();
+			this.chains = new HashMap<>();
+		}
+	}
+	
+	private static final class HandlerChain {
+		private final EventHandler<?>[] before;
+		private final EventHandler<?>[] after;
+		
+		HandlerChain(EventHandler<?>[] before, EventHandler<?>[] after) {
+			this.before = before;
+			this.after = after;
+		}
+	}
+	
+	private HandlerChain chainFor(Class<?> eventClass) {
+		HandlerChain chain = chains.get(eventClass);
+		if (chain != null) {
+			return chain;
+		}
+		if (concurrent) {
+			synchronized (this) {
+				return cacheChain(eventClass);
+			}
+		}
+		return cacheChain(eventClass);
+	}
+	
+	private HandlerChain cacheChain(Class<?> eventClass) {
+		HandlerChain chain = chains.get(eventClass);
+		if (chain == null) {
+			chain = createChain(eventClass);
+			chains.put(eventClass, chain);
+		}
+		return chain;
 	}
 	
-	private <T extends IEvent> T executeEventInternal(T event, Predicate<EventHandler<?>> predicate) {
-		Collection<EventHandler<?>> handlers = this.bindings.get(event.getClass());
-		if (handlers != null) {
-			List<EventHandler<?>> interestedHandlers = handlers.stream().filter(predicate).collect(Collectors.toList());
-			ListIterator<EventHandler<?>> iterator = interestedHandlers.listIterator();
-			while (iterator.hasNext()) {
-				EventHandler<?> performer = iterator.next();
-//				int index = iterator.nextIndex();
-//				logger.info("Handling " + event + " " + index + " / " + interestedHandlers.size() + ": " + performer);
-				performer.execute(event);
+	private HandlerChain createChain(Class<?> eventClass) {
+		List<EventHandler<?>> handlers = new ArrayList<>();
+		for (Class<?> type : supertypes(eventClass)) {
+			Collection<EventHandler<?>> typeHandlers = this.bindings.get(type);
+			if (typeHandlers != null) {
+				handlers.addAll(typeHandlers);
 			}
 		}
+		if (handlers.isEmpty()) {
+			return new HandlerChain(NO_HANDLERS, NO_HANDLERS);
+		}
+		handlers.sort(Comparator.<EventHandler<?>>comparingInt(EventHandler::getPriority).thenComparingLong(EventHandler::getRegistration));
+		List<EventHandler<?>> before = new ArrayList<>();
+		List<EventHandler<?>> after = new ArrayList<>();
+		for (EventHandler<?> handler : handlers) {
+			(handler.isAfter() ? after : before).add(handler);
+		}
+		return new HandlerChain(before.toArray(NO_HANDLERS), after.toArray(NO_HANDLERS));
+	}
+	
+	/**
+	 * @param clazz The class to start from
+	 * @return The class itself and all of its superclasses and interfaces
+	 */
+	private static Set<Class<?>> supertypes(Class<?> clazz) {
+		Set<Class<?>> result = new LinkedHashSet<>();
+		Deque<Class<?>> remaining = new ArrayDeque<>();
+		remaining.add(clazz);
+		while (!remaining.isEmpty()) {
+			Class<?> next = remaining.poll();
+			if (result.add(next)) {
+				if (next.getSuperclass() != null) {
+					remaining.add(next.getSuperclass());
+				}
+				remaining.addAll(Arrays.asList(next.getInterfaces()));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Must be called whenever the bindings are changed
+	 */
+	protected void handlersChanged() {
+		this.chains.clear();
+	}
+	
+	private <T extends IEvent> T executeEventInternal(T event, EventHandler<?>[] handlers) {
+		for (EventHandler<?> performer : handlers) {
+			execute(performer, event);
+		}
 		return event;
 	}
 	
+	private void execute(EventHandler<?> performer, IEvent event) {
+		MetricsListener metrics = this.metrics;
+		Tracer tracer = this.tracer;
+		if (metrics == null && tracer == null) {
+			performer.execute(event);
+			return;
+		}
+		Object trace = tracer == null ? null : tracer.handlerStarted(performer, event);
+		long start = metrics == null ? 0 : System.nanoTime();
+		performer.execute(event);
+		if (metrics != null && start != 0) {
+			metrics.handlerExecuted(performer, event, System.nanoTime() - start);
+		}
+		if (tracer != null) {
+			tracer.handlerFinished(trace, performer, event);
+		}
+	}
+	
 	@Override
 	public <T extends IEvent> T executePostEvent(T event) {
-		logger.debug("Execute pre event " + event);
-		return executeEventInternal(event, eh -> eh.isAfter());
+		if (metrics == null && tracer == null) {
+			return executePostEvent(event, depth);
+		}
+		long start = startTime();
+		Object trace = traceStarted(event);
+		executePostEvent(event, depth);
+		reportFinished(event, isCancelled(event), start, trace);
+		return event;
+	}
+
+	private <T extends IEvent> T executePostEvent(T event, int eventDepth) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Execute post event " + event);
+		}
+		if (monitor != null) {
+			monitor.postEvent(event, eventDepth);
+		}
+		return executeEventInternal(event, chainFor(event.getClass()).after);
 	}
 
 	@Override
 	public <T extends IEvent> T executePreEvent(T event) {
-		logger.debug("Execute post event " + event);
-		return executeEventInternal(event, eh -> !eh.isAfter());
+		if (metrics == null && tracer == null) {
+			return executePreEvent(event, depth);
+		}
+		long start = startTime();
+		Object trace = traceStarted(event);
+		executePreEvent(event, depth);
+		reportFinished(event, isCancelled(event), start, trace);
+		return event;
+	}
+
+	private <T extends IEvent> T executePreEvent(T event, int eventDepth) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Execute pre event " + event);
+		}
+		if (monitor != null) {
+			monitor.preEvent(event, eventDepth);
+		}
+		return executeEventInternal(event, chainFor(event.getClass()).before);
+	}
+	
+	private int eventStarted(IEvent event) {
+		if (concurrent) {
+			return 0;
+		}
+		if (monitor != null) {
+			monitor.eventStarted(event, depth);
+		}
+		return depth++;
+	}
+	
+	private void eventFinished(IEvent event, boolean cancelled, long start, Object trace) {
+		if (!concurrent) {
+			depth--;
+			if (monitor != null) {
+				monitor.eventFinished(event, depth, cancelled);
+			}
+		}
+		reportFinished(event, cancelled, start, trace);
+	}
+	
+	private void reportFinished(IEvent event, boolean cancelled, long start, Object trace) {
+		MetricsListener metrics = this.metrics;
+		Tracer tracer = this.tracer;
+		if (metrics != null && start != 0) {
+			metrics.eventExecuted(event, System.nanoTime() - start, cancelled);
+		}
+		if (tracer != null) {
+			tracer.eventFinished(trace, event, cancelled);
+		}
+	}
+	
+	private Object traceStarted(IEvent event) {
+		return tracer == null ? null : tracer.eventStarted(event);
+	}
+	
+	private static boolean isCancelled(IEvent event) {
+		return event instanceof CancellableEvent && ((CancellableEvent) event).isCancelled();
+	}
+	
+	private long startTime() {
+		return metrics == null ? 0 : System.nanoTime();
+	}
+	
+	/**
+	 * @param metrics The listener to report timings of events and handlers to, or null for none
+	 */
+	public void setMetrics(MetricsListener metrics) {
+		this.metrics = metrics;
+	}
+	
+	public MetricsListener getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * @param tracer The tracer to report events and handlers to, or null for none
+	 */
+	public void setTracer(Tracer tracer) {
+		this.tracer = tracer;
+	}
+	
+	public Tracer getTracer() {
+		return tracer;
+	}
+	
+	/**
+	 * @param monitor The monitor to notify about executed events, or null for none
+	 */
+	public void setMonitor(EventMonitor monitor) {
+		this.monitor = monitor;
+	}
+	
+	public EventMonitor getMonitor() {
+		return monitor;
 	}
 
 	/**
 	 * Execute a pre-event, perform something, then execute a post-event.
+	 * If the executor is deferred, the event is only queued and is executed by {@link #drain()}.
 	 * 
 	 * @param event Event to execute
 	 * @param runInBetween What to do between pre- and post- events.
@@ -61,71 +314,408 @@ public class EventExecutor implements EventExecution {
 	 */
 	@Override
 	public <T extends IEvent> T executeEvent(T event, Runnable runInBetween) {
-		executePreEvent(event);
-		runInBetween.run();
-		executePostEvent(event);
+		if (deferred) {
+			queue.add(event, runInBetween, false);
+			return event;
+		}
+		long start = startTime();
+		Object trace = traceStarted(event);
+		int eventDepth = eventStarted(event);
+		try {
+			executePreEvent(event, eventDepth);
+			runInBetween.run();
+			executePostEvent(event, eventDepth);
+		}
+		finally {
+			eventFinished(event, false, start, trace);
+		}
 		return event;
 	}
 	
 	public <T extends IEvent> T executeEvent(T event, Consumer<T> runInBetween) {
-		executePreEvent(event);
-		runInBetween.accept(event);
-		executePostEvent(event);
+		if (deferred) {
+			queue.add(event, () -> runInBetween.accept(event), false);
+			return event;
+		}
+		long start = startTime();
+		Object trace = traceStarted(event);
+		int eventDepth = eventStarted(event);
+		try {
+			executePreEvent(event, eventDepth);
+			runInBetween.accept(event);
+			executePostEvent(event, eventDepth);
+		}
+		finally {
+			eventFinished(event, false, start, trace);
+		}
 		return event;
 	}
 	
+	/**
+	 * Execute a pre-event, and if the event was not cancelled, perform something and execute a post-event.
+	 * If the executor is deferred, the event is only queued and is executed by {@link #drain()},
+	 * so the returned event has not been cancelled yet.
+	 * 
+	 * @param event Event to execute
+	 * @param runInBetween What to do between pre- and post- events.
+	 * @return The event that was executed
+	 */
 	@Override
 	public <T extends CancellableEvent> T executeCancellableEvent(T event, Runnable runInBetween) {
-		executePreEvent(event);
-		if (!event.isCancelled()) {
-			runInBetween.run();
-			executePostEvent(event);
+		if (deferred) {
+			queue.add(event, runInBetween, true);
+			return event;
+		}
+		long start = startTime();
+		Object trace = traceStarted(event);
+		int eventDepth = eventStarted(event);
+		try {
+			if (stopOnCancel) {
+				executeCancellablePreEvent(event, eventDepth);
+			}
+			else {
+				executePreEvent(event, eventDepth);
+			}
+			if (!event.isCancelled()) {
+				runInBetween.run();
+				executePostEvent(event, eventDepth);
+			}
+		}
+		finally {
+			eventFinished(event, event.isCancelled(), start, trace);
 		}
 		return event;
 	}
 	
+	private <T extends CancellableEvent> T executeCancellablePreEvent(T event, int eventDepth) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Execute pre event " + event);
+		}
+		if (monitor != null) {
+			monitor.preEvent(event, eventDepth);
+		}
+		for (EventHandler<?> performer : chainFor(event.getClass()).before) {
+			if (event.isCancelled()) {
+				break;
+			}
+			execute(performer, event);
+		}
+		return event;
+	}
+	
+	/**
+	 * When deferred, events passed to executeEvent and executeCancellableEvent are queued instead of executed,
+	 * until {@link #drain()} is called, for example at the end of a turn or phase.
+	 * Pre- and post-events that are executed on their own are never deferred.
+	 * 
+	 * @param deferred Whether or not to defer events
+	 */
+	public void setDeferred(boolean deferred) {
+		this.deferred = deferred;
+	}
+	
+	public boolean isDeferred() {
+		return deferred;
+	}
+	
+	/**
+	 * @return The number of events waiting to be drained
+	 */
+	public int getQueuedEvents() {
+		return queue.size();
+	}
+	
+	/**
+	 * Only tracked in executors that are not concurrent.
+	 * 
+	 * @return True if no event is executing or being drained, and no event is waiting to be drained
+	 */
+	public boolean isIdle() {
+		return depth == 0 && !draining && queue.isEmpty();
+	}
+	
+	/**
+	 * Discards the events waiting to be drained, without executing them
+	 */
+	public void clearQueue() {
+		queue.clear();
+	}
+	
+	/**
+	 * Collapses deferred events of a class with equal keys into one. While an event is waiting in the queue,
+	 * any other event of exactly the same class with an equal key is dropped.
+	 * 
+	 * @param eventClass The class of events to coalesce
+	 * @param key The key of an event, or null to stop coalescing events of the class
+	 */
+	public <T extends IEvent> void setCoalescing(Class<T> eventClass, Function<? super T, ?> key) {
+		queue.setCoalescing(eventClass, key);
+	}
+	
+	/**
+	 * Executes all deferred events, including the events that are queued while draining.
+	 * Events are executed in batches grouped by event class, in the order each class was first queued.
+	 * For each batch, every before-handler runs over the whole batch, then the action of each event
+	 * that was not cancelled, then every after-handler over the events that were not cancelled.
+	 * If a handler or action throws an exception, the events of the batches that were not started
+	 * are kept in the queue, ahead of the events queued while draining, and the exception is rethrown.
+	 * 
+	 * @return The number of events that were executed
+	 */
+	public int drain() {
+		if (draining) {
+			return 0;
+		}
+		draining = true;
+		int executed = 0;
+		try {
+			while (!queue.isEmpty()) {
+				queue.takeAll(batch);
+				executed += batch.size;
+				executeBatch(batch);
+			}
+		}
+		finally {
+			batch.clear();
+			draining = false;
+		}
+		return executed;
+	}
+	
+	private void executeBatch(EventQueue.EventBatch batch) {
+		boolean[] grouped = new boolean[batch.size];
+		int[] group = new int[batch.size];
+		int i = 0;
+		try {
+			for (; i < batch.size; i++) {
+				if (grouped[i]) {
+					continue;
+				}
+				Class<?> eventClass = batch.events[i].getClass();
+				int groupSize = 0;
+				for (int j = i; j < batch.size; j++) {
+					if (!grouped[j] && batch.events[j].getClass() == eventClass) {
+						grouped[j] = true;
+						group[groupSize++] = j;
+					}
+				}
+				executeGroup(batch, chainFor(eventClass), group, groupSize);
+			}
+		}
+		finally {
+			// if a handler or action threw, the events of the groups that were not started are queued again
+			for (int j = batch.size - 1; j > i; j--) {
+				if (!grouped[j]) {
+					queue.putBack(batch.events[j], batch.actions[j], batch.cancellable[j]);
+				}
+			}
+		}
+	}
+	
+	private void executeGroup(EventQueue.EventBatch batch, HandlerChain chain, int[] group, int groupSize) {
+		MetricsListener metrics = this.metrics;
+		Tracer tracer = this.tracer;
+		long start = metrics == null ? 0 : System.nanoTime();
+		Object[] traces = tracer == null ? null : new Object[groupSize];
+		if (traces != null) {
+			for (int i = 0; i < groupSize; i++) {
+				traces[i] = tracer.eventStarted(batch.events[group[i]]);
+			}
+		}
+		int eventDepth = depth;
+		if (monitor != null) {
+			for (int i = 0; i < groupSize; i++) {
+				monitor.eventStarted(batch.events[group[i]], eventDepth);
+				monitor.preEvent(batch.events[group[i]], eventDepth);
+			}
+		}
+		if (concurrent) {
+			executeGroupHandlers(batch, chain, group, groupSize, eventDepth);
+		}
+		else {
+			depth++;
+			try {
+				executeGroupHandlers(batch, chain, group, groupSize, eventDepth);
+			}
+			finally {
+				depth--;
+			}
+		}
+		if (monitor != null) {
+			for (int i = 0; i < groupSize; i++) {
+				monitor.eventFinished(batch.events[group[i]], eventDepth, isCancelled(batch, group[i]));
+			}
+		}
+		if (metrics != null && start != 0) {
+			long share = (System.nanoTime() - start) / groupSize;
+			for (int i = 0; i < groupSize; i++) {
+				metrics.eventExecuted(batch.events[group[i]], share, isCancelled(batch, group[i]));
+			}
+		}
+		if (traces != null) {
+			for (int i = 0; i < groupSize; i++) {
+				tracer.eventFinished(traces[i], batch.events[group[i]], isCancelled(batch, group[i]));
+			}
+		}
+	}
+	
+	private void executeGroupHandlers(EventQueue.EventBatch batch, HandlerChain chain, int[] group, int groupSize, int eventDepth) {
+		for (EventHandler<?> performer : chain.before) {
+			for (int i = 0; i < groupSize; i++) {
+				int index = group[i];
+				if (!stopOnCancel || !isCancelled(batch, index)) {
+					execute(performer, batch.events[index]);
+				}
+			}
+		}
+		for (int i = 0; i < groupSize; i++) {
+			int index = group[i];
+			if (!isCancelled(batch, index)) {
+				batch.actions[index].run();
+			}
+		}
+		if (monitor != null) {
+			for (int i = 0; i < groupSize; i++) {
+				if (!isCancelled(batch, group[i])) {
+					monitor.postEvent(batch.events[group[i]], eventDepth);
+				}
+			}
+		}
+		for (EventHandler<?> performer : chain.after) {
+			for (int i = 0; i < groupSize; i++) {
+				int index = group[i];
+				if (!isCancelled(batch, index)) {
+					execute(performer, batch.events[index]);
+				}
+			}
+		}
+	}
+	
+	private static boolean isCancelled(EventQueue.EventBatch batch, int index) {
+		return batch.cancellable[index] && ((CancellableEvent) batch.events[index]).isCancelled();
+	}
+	
+	/**
+	 * When enabled, the remaining before-handlers of a cancellable event are skipped
+	 * as soon as one of them has cancelled the event. Disabled by default, as a handler
+	 * may also un-cancel an event that an earlier handler cancelled.
+	 * 
+	 * @param stopOnCancel Whether or not to stop executing handlers of cancelled events
+	 */
+	public void setStopOnCancel(boolean stopOnCancel) {
+		this.stopOnCancel = stopOnCancel;
+	}
+	
+	public boolean isStopOnCancel() {
+		return stopOnCancel;
+	}
+	
+	/**
+	 * Registers a handler for events of a class. The handler also receives events of all subclasses,
+	 * and if realParam is an interface, all events implementing it.
+	 * Handlers are executed in order of their priority, lowest first, and then in the order they were first registered,
+	 * so a handler that is registered again, for example for another event class, keeps its place.
+	 * 
+	 * @param realParam The class of events to handle
+	 * @param handler The handler to register
+	 */
 	public <T extends IEvent> void registerHandler(Class<T> realParam, EventHandler<T> handler) {
 		if (!this.bindings.containsKey(realParam)) {
 			this.bindings.put(realParam, createCollection());
 		}
 		Collection<EventHandler<?>> eventHandlersForEvent = this.bindings.get(realParam);
+		if (handler.getRegistration() == 0) {
+			handler.setRegistration(++registrations);
+		}
 		eventHandlersForEvent.add(handler);
+		handlersChanged();
 	}
 
 	protected Collection<EventHandler<?>> createCollection() {
 		return new ArrayList<EventHandler<?>>();
 	}
 
+	/**
+	 * Registers the same handlers as another executor, in the same order, and copies its settings.
+	 * The handlers themselves are shared by both executors. Queued events are not copied.
+	 * 
+	 * @param other The executor to copy handlers from
+	 */
+	public void copyHandlers(EventExecutor other) {
+		for (Entry<Class<? extends IEvent>, Collection<EventHandler<?>>> ee : other.bindings.entrySet()) {
+			Collection<EventHandler<?>> handlers = this.bindings.get(ee.getKey());
+			if (handlers == null) {
+				handlers = createCollection();
+				this.bindings.put(ee.getKey(), handlers);
+			}
+			handlers.addAll(ee.getValue());
+		}
+		this.registrations = Math.max(this.registrations, other.registrations);
+		this.stopOnCancel = other.stopOnCancel;
+		this.deferred = other.deferred;
+		this.queue.copyCoalescing(other.queue);
+		handlersChanged();
+	}
+
 	public void clearListeners() {
 		this.bindings.clear();
+		handlersChanged();
 	}
 
 	public void removeHandler(EventHandler<?> listener) {
 		for (Entry<Class<? extends IEvent>, Collection<EventHandler<?>>> ee : bindings.entrySet()) {
-			Iterator<EventHandler<?>> it = ee.getValue().iterator();
-			while (it.hasNext()) {
-				EventHandler<?> curr = it.next();
-				if (curr == listener) {
-					it.remove();
-				}
-			}
+			ee.getValue().removeIf(curr -> curr == listener);
 		}
+		handlersChanged();
 	}
 	
 	public void removeListenersWithIdentifier(Object identifier) {
 		for (Entry<Class<? extends IEvent>, Collection<EventHandler<?>>> ee : bindings.entrySet()) {
 			ee.getValue().removeIf(eh -> eh.getIdentifier() == identifier);
 		}
+		handlersChanged();
+	}
+	
+	/**
+	 * Registers a handler for each method of the subscriber that is annotated with {@link Subscribe}.
+	 * The subscriber is used as identifier of the handlers.
+	 * 
+	 * @param subscriber The object whose methods should handle events
+	 * @return The registered handlers
+	 */
+	public List<EventHandler<?>> registerSubscribers(Object subscriber) {
+		Subscribers.Subscription[] subscriptions = Subscribers.of(subscriber.getClass());
+		List<EventHandler<?>> result = new ArrayList<>(subscriptions.length);
+		for (Subscribers.Subscription subscription : subscriptions) {
+			result.add(register(subscription, subscriber));
+		}
+		return result;
+	}
+	
+	private <T extends IEvent> EventHandler<T> register(Subscribers.Subscription subscription, Object subscriber) {
+		@SuppressWarnings("unchecked")
+		Class<T> eventClass = (Class<T>) subscription.getEventClass();
+		EventHandler<T> handler = subscription.createHandler(subscriber);
+		registerHandler(eventClass, handler);
+		return handler;
 	}
 	
 	public <T extends IEvent> EventHandler<T> registerHandlerAfter(Object identifier, Class<T> realParam, Consumer<T> handler) {
-		EventHandler<T> listener = new EventHandler<T>(identifier, handler, true);
+		return registerHandlerAfter(identifier, realParam, handler, 0);
+	}
+
+	public <T extends IEvent> EventHandler<T> registerHandlerAfter(Object identifier, Class<T> realParam, Consumer<T> handler, int priority) {
+		EventHandler<T> listener = new EventHandler<T>(identifier, handler, true, priority);
 		registerHandler(realParam, listener);
 		return listener;
 	}
 
 	public <T extends IEvent> EventHandler<T> registerHandlerBefore(Object identifier, Class<T> realParam, Consumer<T> handler) {
-		EventHandler<T> listener = new EventHandler<T>(identifier, handler, false);
+		return registerHandlerBefore(identifier, realParam, handler, 0);
+	}
+
+	public <T extends IEvent> EventHandler<T> registerHandlerBefore(Object identifier, Class<T> realParam, Consumer<T> handler, int priority) {
+		EventHandler<T> listener = new EventHandler<T>(identifier, handler, false, priority);
 		registerHandler(realParam, listener);
 		return listener;
 	}
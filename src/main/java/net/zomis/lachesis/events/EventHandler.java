@@ -7,11 +7,24 @@ public class EventHandler<T> {
 	private final Consumer<T> consumer;
 	private final boolean after;
 	private final Object identifier;
+	private final int priority;
+	private long registration;
 
 	public EventHandler(Object identifier, Consumer<T> handler, boolean after) {
+		this(identifier, handler, after, 0);
+	}
+
+	/**
+	 * @param identifier The owner of the handler, usually a system
+	 * @param handler What to do when the event is executed
+	 * @param after True if the handler should run after the event, false if it should run before
+	 * @param priority Handlers with a lower priority are executed first, the default is 0
+	 */
+	public EventHandler(Object identifier, Consumer<T> handler, boolean after, int priority) {
 		this.consumer = handler;
 		this.after = after;
 		this.identifier = identifier;
+		this.priority = priority;
 	}
 	
 	public boolean isAfter() {
@@ -25,11 +38,23 @@ public class EventHandler<T> {
 
 	@Override
 	public String toString() {
-		return "EventHandler [" + identifier + ", after=" + after + "]";
+		return "EventHandler [" + identifier + ", after=" + after + ", priority=" + priority + "]";
+	}
+	
+	public int getPriority() {
+		return priority;
 	}
 	
 	public Object getIdentifier() {
 		return identifier;
 	}
 	
+	long getRegistration() {
+		return registration;
+	}
+	
+	void setRegistration(long registration) {
+		this.registration = registration;
+	}
+	
 }
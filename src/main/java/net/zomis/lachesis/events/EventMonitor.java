@@ -0,0 +1,49 @@
+package net.zomis.lachesis.events;
+
+/**
+ * Observes the events executed by an {@link EventExecutor}, for example to record them.
+ * The depth of an event is the number of events that were executing when it started, 0 for events that are not nested in another event.
+ * Pre- and post-events that are executed on their own are reported without being started or finished.
+ *
+ * @author Simon Forsberg
+ */
+public interface EventMonitor {
+
+	/**
+	 * Called when an event starts executing, before its pre-event
+	 * 
+	 * @param event The event
+	 * @param depth The nesting depth of the event
+	 */
+	default void eventStarted(IEvent event, int depth) {
+	}
+
+	/**
+	 * Called before the before-handlers of an event are executed
+	 * 
+	 * @param event The event
+	 * @param depth The nesting depth of the event
+	 */
+	default void preEvent(IEvent event, int depth) {
+	}
+
+	/**
+	 * Called before the after-handlers of an event are executed. Not called for cancelled events.
+	 * 
+	 * @param event The event
+	 * @param depth The nesting depth of the event
+	 */
+	default void postEvent(IEvent event, int depth) {
+	}
+
+	/**
+	 * Called when an event has finished executing
+	 * 
+	 * @param event The event
+	 * @param depth The nesting depth of the event
+	 * @param cancelled True if the event was cancelled
+	 */
+	default void eventFinished(IEvent event, int depth, boolean cancelled) {
+	}
+
+}
@@ -0,0 +1,167 @@
+package net.zomis.lachesis.events;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Ring buffer of events waiting to be executed, together with what to run in between their pre- and post-events.
+ * Events for which a coalescing key has been configured are dropped if an event
+ * of the same class with an equal key is already waiting.
+ *
+ * @author Simon Forsberg
+ */
+final class EventQueue {
+
+	/**
+	 * Capacity is always a power of two
+	 */
+	private IEvent[] events = new IEvent[16];
+	private Runnable[] actions = new Runnable[16];
+	private boolean[] cancellable = new boolean[16];
+	private int head;
+	private int size;
+
+	private final Map<Class<?>, Function<Object, ?>> coalescing = new HashMap<>();
+	private final Map<Class<?>, Set<Object>> pendingKeys = new HashMap<>();
+
+	<T extends IEvent> void setCoalescing(Class<T> eventClass, Function<? super T, ?> key) {
+		if (key == null) {
+			coalescing.remove(eventClass);
+			pendingKeys.remove(eventClass);
+			return;
+		}
+		coalescing.put(eventClass, event -> key.apply(eventClass.cast(event)));
+	}
+
+	void copyCoalescing(EventQueue other) {
+		this.coalescing.putAll(other.coalescing);
+	}
+
+	/**
+	 * @return True if the event was added, false if it was coalesced with an event that is already waiting
+	 */
+	boolean add(IEvent event, Runnable action, boolean isCancellable) {
+		Function<Object, ?> key = coalescing.get(event.getClass());
+		if (key != null && !pendingKeys.computeIfAbsent(event.getClass(), c -> new HashSet<>()).add(key.apply(event))) {
+			return false;
+		}
+		if (size == events.length) {
+			grow();
+		}
+		int tail = (head + size) & (events.length - 1);
+		events[tail] = event;
+		actions[tail] = action;
+		cancellable[tail] = isCancellable;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Puts an event that was taken but never executed back at the front of the queue
+	 */
+	void putBack(IEvent event, Runnable action, boolean isCancellable) {
+		Function<Object, ?> key = coalescing.get(event.getClass());
+		if (key != null) {
+			pendingKeys.computeIfAbsent(event.getClass(), c -> new HashSet<>()).add(key.apply(event));
+		}
+		if (size == events.length) {
+			grow();
+		}
+		head = (head - 1) & (events.length - 1);
+		events[head] = event;
+		actions[head] = action;
+		cancellable[head] = isCancellable;
+		size++;
+	}
+
+	private void grow() {
+		int capacity = events.length * 2;
+		IEvent[] newEvents = new IEvent[capacity];
+		Runnable[] newActions = new Runnable[capacity];
+		boolean[] newCancellable = new boolean[capacity];
+		for (int i = 0; i < size; i++) {
+			int from = (head + i) & (events.length - 1);
+			newEvents[i] = events[from];
+			newActions[i] = actions[from];
+			newCancellable[i] = cancellable[from];
+		}
+		events = newEvents;
+		actions = newActions;
+		cancellable = newCancellable;
+		head = 0;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Discards all waiting events
+	 */
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			int from = (head + i) & (events.length - 1);
+			events[from] = null;
+			actions[from] = null;
+		}
+		head = 0;
+		size = 0;
+		pendingKeys.values().forEach(Set::clear);
+	}
+
+	/**
+	 * Moves all waiting events into a batch. Events added after this can be coalesced again.
+	 */
+	void takeAll(EventBatch batch) {
+		batch.clear();
+		for (int i = 0; i < size; i++) {
+			int from = (head + i) & (events.length - 1);
+			batch.add(events[from], actions[from], cancellable[from]);
+			events[from] = null;
+			actions[from] = null;
+		}
+		head = 0;
+		size = 0;
+		pendingKeys.values().forEach(Set::clear);
+	}
+
+	/**
+	 * A reusable list of events taken from the queue
+	 */
+	static final class EventBatch {
+		IEvent[] events = new IEvent[16];
+		Runnable[] actions = new Runnable[16];
+		boolean[] cancellable = new boolean[16];
+		int size;
+
+		void add(IEvent event, Runnable action, boolean isCancellable) {
+			if (size == events.length) {
+				int capacity = size * 2;
+				events = Arrays.copyOf(events, capacity);
+				actions = Arrays.copyOf(actions, capacity);
+				cancellable = Arrays.copyOf(cancellable, capacity);
+			}
+			events[size] = event;
+			actions[size] = action;
+			cancellable[size] = isCancellable;
+			size++;
+		}
+
+		void clear() {
+			for (int i = 0; i < size; i++) {
+				events[i] = null;
+				actions[i] = null;
+			}
+			size = 0;
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package net.zomis.lachesis.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as an event handler. The method must take exactly one parameter, the event to handle.
+ * Systems added to a game have their subscribed methods registered with the system as identifier,
+ * see {@link EventExecutor#registerSubscribers(Object)}.
+ * <p>
+ * For best performance, make both the method and its class public, and visible from the class loader of Lachesis.
+ */
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+	/**
+	 * @return True to handle the event after it happened, false to handle it before
+	 */
+	boolean after() default false;
+
+	/**
+	 * @return Handlers with a lower priority are executed first
+	 */
+	int priority() default 0;
+}
@@ -0,0 +1,157 @@
+package net.zomis.lachesis.events;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Finds the {@link Subscribe} methods of a class and creates handlers for them.
+ * The methods of each class are only scanned once, and for each method a factory is generated
+ * that creates a {@link Consumer} calling the method on a given instance.
+ *
+ * @author Simon Forsberg
+ */
+final class Subscribers {
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+	private static final ClassValue<Subscription[]> subscriptions = new ClassValue<Subscription[]>() {
+		@Override
+		protected Subscription[] computeValue(Class<?> type) {
+			return AccessController.doPrivileged((PrivilegedAction<Subscription[]>) () -> scan(type));
+		}
+	};
+
+	static final class Subscription {
+		private final Class<? extends IEvent> eventClass;
+		private final boolean after;
+		private final int priority;
+		/**
+		 * Takes an instance of the subscriber, returns a Consumer of the event
+		 */
+		private final MethodHandle factory;
+
+		Subscription(Class<? extends IEvent> eventClass, Subscribe subscribe, MethodHandle factory) {
+			this.eventClass = eventClass;
+			this.after = subscribe.after();
+			this.priority = subscribe.priority();
+			this.factory = factory;
+		}
+
+		Class<? extends IEvent> getEventClass() {
+			return eventClass;
+		}
+
+		@SuppressWarnings("unchecked")
+		<T extends IEvent> EventHandler<T> createHandler(Object subscriber) {
+			Consumer<T> consumer;
+			try {
+				consumer = (Consumer<T>) factory.invokeExact(subscriber);
+			} catch (Throwable e) {
+				throw new IllegalStateException("Unable to create handler for " + eventClass.getSimpleName() + " on " + subscriber, e);
+			}
+			return new EventHandler<T>(subscriber, consumer, after, priority);
+		}
+	}
+
+	private Subscribers() {
+	}
+
+	static Subscription[] of(Class<?> clazz) {
+		return subscriptions.get(clazz);
+	}
+
+	private static Subscription[] scan(Class<?> type) {
+		List<Subscription> result = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+		for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			for (Method method : clazz.getDeclaredMethods()) {
+				Subscribe subscribe = method.getAnnotation(Subscribe.class);
+				if (subscribe == null || method.isBridge()) {
+					continue;
+				}
+				if (!seen.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+					// overridden by a subclass, which has already been registered
+					continue;
+				}
+				if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1
+						|| !IEvent.class.isAssignableFrom(method.getParameterTypes()[0])) {
+					throw new IllegalArgumentException("@Subscribe method must be an instance method taking one IEvent: " + method);
+				}
+				Class<? extends IEvent> eventClass = method.getParameterTypes()[0].asSubclass(IEvent.class);
+				result.add(new Subscription(eventClass, subscribe, factory(method)));
+			}
+		}
+		return result.toArray(new Subscription[result.size()]);
+	}
+
+	/**
+	 * @return A method handle of type (Object)Consumer
+	 */
+	private static MethodHandle factory(Method method) {
+		Class<?> owner = method.getDeclaringClass();
+		MethodType factoryType = MethodType.methodType(Consumer.class, Object.class);
+		try {
+			if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(owner.getModifiers())
+					&& isVisible(owner) && isVisible(method.getParameterTypes()[0])) {
+				MethodHandle target = lookup.unreflect(method);
+				CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+						MethodType.methodType(Consumer.class, owner),
+						MethodType.methodType(void.class, Object.class),
+						target,
+						MethodType.methodType(void.class, method.getParameterTypes()[0]));
+				return site.getTarget().asType(factoryType);
+			}
+			method.setAccessible(true);
+			MethodHandle target = lookup.unreflect(method)
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			MethodHandle bind = MethodHandles.lookup().findStatic(Subscribers.class, "bind",
+					MethodType.methodType(Consumer.class, MethodHandle.class, Object.class));
+			return bind.bindTo(target);
+		} catch (IllegalAccessException | NoSuchMethodException | LambdaConversionException e) {
+			throw new IllegalArgumentException("Unable to bind @Subscribe method " + method, e);
+		}
+	}
+
+	/**
+	 * The classes generated by LambdaMetafactory are defined by the loader of Subscribers,
+	 * so classes from other loaders, such as a child loader of a plugin, must be visible from it.
+	 */
+	private static boolean isVisible(Class<?> type) {
+		try {
+			return Class.forName(type.getName(), false, Subscribers.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Fallback for methods that can not be bound with LambdaMetafactory
+	 */
+	@SuppressWarnings("unused")
+	private static Consumer<Object> bind(MethodHandle target, Object subscriber) {
+		return event -> {
+			try {
+				target.invokeExact(subscriber, event);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,101 @@
+package net.zomis.lachesis.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads binary data written by {@link BinaryOutput} from a buffer, which may be memory-mapped.
+ *
+ * @author Simon Forsberg
+ */
+public final class BinaryInput {
+
+	private final ByteBuffer buffer;
+
+	public BinaryInput(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	public int readByte() {
+		return buffer.get();
+	}
+
+	public boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	public int readInt() {
+		return buffer.getInt();
+	}
+
+	public long readLong() {
+		return buffer.getLong();
+	}
+
+	public double readDouble() {
+		return buffer.getDouble();
+	}
+
+	public int readVarInt() {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalStateException("Malformed variable length int");
+	}
+
+	public int readSignedVarInt() {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public long readVarLong() {
+		long result = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = buffer.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalStateException("Malformed variable length long");
+	}
+
+	public String readString() {
+		int length = readVarInt();
+		if (length == 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length - 1];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param length The number of bytes to read
+	 * @return A view of the next bytes, which are skipped in this input
+	 */
+	public ByteBuffer readBytes(int length) {
+		ByteBuffer result = buffer.slice();
+		result.limit(length);
+		buffer.position(buffer.position() + length);
+		return result;
+	}
+
+	public boolean hasRemaining() {
+		return buffer.hasRemaining();
+	}
+
+	public int position() {
+		return buffer.position();
+	}
+
+	public void position(int position) {
+		buffer.position(position);
+	}
+
+}
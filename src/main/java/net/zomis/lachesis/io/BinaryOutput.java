@@ -0,0 +1,145 @@
+package net.zomis.lachesis.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Growable buffer for writing binary data, with variable length encoding of integers.
+ *
+ * @author Simon Forsberg
+ */
+public final class BinaryOutput {
+
+	private ByteBuffer buffer;
+
+	public BinaryOutput() {
+		this(1024);
+	}
+
+	public BinaryOutput(int initialCapacity) {
+		this.buffer = ByteBuffer.allocate(initialCapacity);
+	}
+
+	private void ensure(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+	}
+
+	public BinaryOutput writeByte(int value) {
+		ensure(1);
+		buffer.put((byte) value);
+		return this;
+	}
+
+	public BinaryOutput writeBoolean(boolean value) {
+		return writeByte(value ? 1 : 0);
+	}
+
+	public BinaryOutput writeInt(int value) {
+		ensure(4);
+		buffer.putInt(value);
+		return this;
+	}
+
+	public BinaryOutput writeLong(long value) {
+		ensure(8);
+		buffer.putLong(value);
+		return this;
+	}
+
+	public BinaryOutput writeDouble(double value) {
+		ensure(8);
+		buffer.putDouble(value);
+		return this;
+	}
+
+	/**
+	 * Writes a non-negative int using one byte per 7 bits
+	 */
+	public BinaryOutput writeVarInt(int value) {
+		ensure(5);
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		return this;
+	}
+
+	/**
+	 * Writes an int that may be negative, using zig-zag encoding so that small negative numbers are short
+	 */
+	public BinaryOutput writeSignedVarInt(int value) {
+		return writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	public BinaryOutput writeVarLong(long value) {
+		ensure(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		return this;
+	}
+
+	/**
+	 * Writes a string, which may be null
+	 */
+	public BinaryOutput writeString(String value) {
+		if (value == null) {
+			return writeVarInt(0);
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		ensure(bytes.length);
+		buffer.put(bytes);
+		return this;
+	}
+
+	public BinaryOutput writeBytes(ByteBuffer bytes) {
+		ensure(bytes.remaining());
+		buffer.put(bytes);
+		return this;
+	}
+
+	/**
+	 * @return The number of bytes written
+	 */
+	public int size() {
+		return buffer.position();
+	}
+
+	/**
+	 * @return A read-only view of the bytes written so far
+	 */
+	public ByteBuffer toByteBuffer() {
+		ByteBuffer result = buffer.duplicate();
+		result.flip();
+		return result.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes all bytes written so far to a channel
+	 * 
+	 * @param channel The channel to write to
+	 * @throws IOException If writing fails
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer bytes = toByteBuffer();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+	}
+
+	public void clear() {
+		buffer.clear();
+	}
+
+}
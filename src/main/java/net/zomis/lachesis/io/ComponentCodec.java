@@ -0,0 +1,22 @@
+package net.zomis.lachesis.io;
+
+import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.Entity;
+
+/**
+ * Writes and reads the data of one type of component
+ *
+ * @param <T> The component type
+ */
+public interface ComponentCodec<T extends Component> {
+
+	void write(T component, BinaryOutput out);
+
+	/**
+	 * @param in The input to read from
+	 * @param entity The entity that the component will be added to
+	 * @return The component that was read
+	 */
+	T read(BinaryInput in, Entity entity);
+
+}
@@ -0,0 +1,22 @@
+package net.zomis.lachesis.io;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Writes and reads the data of one class of events
+ *
+ * @param <T> The event type
+ */
+public interface EventCodec<T extends IEvent> {
+
+	void write(T event, BinaryOutput out);
+
+	/**
+	 * @param in The input to read from
+	 * @param game The game that the event belongs to, used to look up entities
+	 * @return The event that was read
+	 */
+	T read(BinaryInput in, Game game);
+
+}
@@ -0,0 +1,178 @@
+package net.zomis.lachesis.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import net.zomis.lachesis.core.GameSystem;
+import net.zomis.lachesis.events.EventHandler;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Collects the timings of events per event class, of handlers per identifier and of systems per system class.
+ * Handlers registered by a system have the system as identifier. One instance may be shared by several games.
+ * <p>
+ * The timings can be read directly, or registered as MBeans with {@link #registerMBeans(String)},
+ * in which case timings of event classes, identifiers and systems seen later are registered as they appear.
+ *
+ * @author Simon Forsberg
+ */
+public class GameMetrics implements MetricsListener {
+
+	private static final Logger logger = LogManager.getLogger(GameMetrics.class);
+	private static final String DOMAIN = "net.zomis.lachesis";
+
+	private final Map<Class<?>, Timings> events = new ConcurrentHashMap<>();
+	private final Map<String, Timings> handlers = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Timings> systemStarts = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Timings> systemUpdates = new ConcurrentHashMap<>();
+
+	private volatile String mbeanName;
+
+	@Override
+	public void eventExecuted(IEvent event, long nanos, boolean cancelled) {
+		timings(events, event.getClass(), "Event", event.getClass().getName()).record(nanos, cancelled);
+	}
+
+	@Override
+	public void handlerExecuted(EventHandler<?> handler, IEvent event, long nanos) {
+		String identifier = identifierName(handler.getIdentifier());
+		timings(handlers, identifier, "Handler", identifier).record(nanos, false);
+	}
+
+	@Override
+	public void systemStarted(GameSystem system, long nanos) {
+		timings(systemStarts, system.getClass(), "SystemStart", system.getClass().getName()).record(nanos, false);
+	}
+
+	@Override
+	public void systemUpdated(GameSystem system, long nanos) {
+		timings(systemUpdates, system.getClass(), "SystemUpdate", system.getClass().getName()).record(nanos, false);
+	}
+
+	private static String identifierName(Object identifier) {
+		if (identifier == null) {
+			return "none";
+		}
+		return identifier instanceof String ? (String) identifier : identifier.getClass().getName();
+	}
+
+	private <K> Timings timings(Map<K, Timings> map, K key, String type, String name) {
+		Timings timings = map.get(key);
+		if (timings != null) {
+			return timings;
+		}
+		Timings created = new Timings(name);
+		Timings existing = map.putIfAbsent(key, created);
+		if (existing != null) {
+			return existing;
+		}
+		if (mbeanName != null) {
+			register(type, created);
+		}
+		return created;
+	}
+
+	/**
+	 * @return Timings of executed events by event class
+	 */
+	public Map<Class<?>, Timings> getEvents() {
+		return Collections.unmodifiableMap(events);
+	}
+
+	/**
+	 * @return Timings of handlers by the class name of their identifier, or by the identifier itself if it is a string
+	 */
+	public Map<String, Timings> getHandlers() {
+		return Collections.unmodifiableMap(handlers);
+	}
+
+	/**
+	 * @return Timings of starting systems by system class
+	 */
+	public Map<Class<?>, Timings> getSystemStarts() {
+		return Collections.unmodifiableMap(systemStarts);
+	}
+
+	/**
+	 * @return Timings of updating systems by system class
+	 */
+	public Map<Class<?>, Timings> getSystemUpdates() {
+		return Collections.unmodifiableMap(systemUpdates);
+	}
+
+	public void reset() {
+		events.values().forEach(Timings::reset);
+		handlers.values().forEach(Timings::reset);
+		systemStarts.values().forEach(Timings::reset);
+		systemUpdates.values().forEach(Timings::reset);
+	}
+
+	/**
+	 * Registers the timings as MBeans in the platform MBean server, with object names such as
+	 * <code>net.zomis.lachesis:metrics=name,type=Event,name="com.example.MoveEvent"</code>
+	 * 
+	 * @param name Name of these metrics, to tell them apart from other metrics
+	 */
+	public synchronized void registerMBeans(String name) {
+		if (mbeanName != null) {
+			throw new IllegalStateException("MBeans are already registered as " + mbeanName);
+		}
+		mbeanName = name;
+		events.values().forEach(timings -> register("Event", timings));
+		handlers.values().forEach(timings -> register("Handler", timings));
+		systemStarts.values().forEach(timings -> register("SystemStart", timings));
+		systemUpdates.values().forEach(timings -> register("SystemUpdate", timings));
+	}
+
+	/**
+	 * Registers the timings unless they already are, failures are logged as they must not affect the game
+	 */
+	private synchronized void register(String type, Timings timings) {
+		if (mbeanName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName name = objectName(type, timings);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(timings, name);
+			}
+		}
+		catch (JMException | RuntimeException e) {
+			logger.warn("Unable to register MBean for " + timings.getName(), e);
+		}
+	}
+
+	private ObjectName objectName(String type, Timings timings) throws JMException {
+		return new ObjectName(DOMAIN + ":metrics=" + ObjectName.quote(mbeanName) + ",type=" + type + ",name=" + ObjectName.quote(timings.getName()));
+	}
+
+	/**
+	 * Removes all MBeans registered by {@link #registerMBeans(String)}
+	 */
+	public synchronized void unregisterMBeans() {
+		if (mbeanName == null) {
+			return;
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (ObjectName registered : server.queryNames(new ObjectName(DOMAIN + ":metrics=" + ObjectName.quote(mbeanName) + ",*"), null)) {
+				server.unregisterMBean(registered);
+			}
+		}
+		catch (JMException e) {
+			throw new IllegalStateException("Unable to unregister MBeans of " + mbeanName, e);
+		}
+		mbeanName = null;
+	}
+
+}
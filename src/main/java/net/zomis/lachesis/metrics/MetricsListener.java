@@ -0,0 +1,48 @@
+package net.zomis.lachesis.metrics;
+
+import net.zomis.lachesis.core.GameSystem;
+import net.zomis.lachesis.events.EventHandler;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Receives timings of what happens in a game, see {@link net.zomis.lachesis.core.Game#setMetrics(MetricsListener)}.
+ * Systems may be updated in parallel, so implementations must be thread-safe. Times are in nanoseconds.
+ *
+ * @author Simon Forsberg
+ */
+public interface MetricsListener {
+
+	/**
+	 * Called when an event executed by executeEvent or executeCancellableEvent has finished, including its nested events.
+	 * Events executed in batches when draining deferred events are each given their share of the time of their batch.
+	 * 
+	 * @param event The event
+	 * @param nanos The time it took to execute the event
+	 * @param cancelled True if the event was cancelled
+	 */
+	default void eventExecuted(IEvent event, long nanos, boolean cancelled) {
+	}
+
+	/**
+	 * @param handler The handler
+	 * @param event The event that the handler handled
+	 * @param nanos The time it took to execute the handler
+	 */
+	default void handlerExecuted(EventHandler<?> handler, IEvent event, long nanos) {
+	}
+
+	/**
+	 * @param system The system
+	 * @param nanos The time it took to start the system
+	 */
+	default void systemStarted(GameSystem system, long nanos) {
+	}
+
+	/**
+	 * @param system The system
+	 * @param nanos The time it took to update the system
+	 */
+	default void systemUpdated(GameSystem system, long nanos) {
+	}
+
+}
@@ -0,0 +1,81 @@
+package net.zomis.lachesis.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of one event class, handler identifier or system
+ *
+ * @author Simon Forsberg
+ */
+public final class Timings implements TimingsMXBean {
+
+	private final String name;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final LongAdder cancellations = new LongAdder();
+
+	Timings(String name) {
+		this.name = name;
+	}
+
+	void record(long nanos, boolean cancelled) {
+		histogram.record(nanos);
+		if (cancelled) {
+			cancellations.increment();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+
+	@Override
+	public long getCount() {
+		return histogram.getCount();
+	}
+
+	@Override
+	public long getCancellations() {
+		return cancellations.sum();
+	}
+
+	@Override
+	public long getTotalNanos() {
+		return histogram.getTotalNanos();
+	}
+
+	@Override
+	public long getMeanNanos() {
+		return histogram.getMeanNanos();
+	}
+
+	@Override
+	public long getMedianNanos() {
+		return histogram.getPercentileNanos(50);
+	}
+
+	@Override
+	public long getP99Nanos() {
+		return histogram.getPercentileNanos(99);
+	}
+
+	@Override
+	public long getMaxNanos() {
+		return histogram.getMaxNanos();
+	}
+
+	@Override
+	public void reset() {
+		histogram.reset();
+		cancellations.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "Timings [" + name + ", cancellations=" + getCancellations() + ", " + histogram + "]";
+	}
+
+}
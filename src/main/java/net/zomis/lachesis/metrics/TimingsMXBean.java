@@ -0,0 +1,24 @@
+package net.zomis.lachesis.metrics;
+
+/**
+ * Timings of one event class, handler identifier or system, in nanoseconds
+ */
+public interface TimingsMXBean {
+
+	long getCount();
+
+	long getCancellations();
+
+	long getTotalNanos();
+
+	long getMeanNanos();
+
+	long getMedianNanos();
+
+	long getP99Nanos();
+
+	long getMaxNanos();
+
+	void reset();
+
+}
@@ -1,8 +1,10 @@
 package net.zomis.lachesis.players;
 
 import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.ForkableComponent;
 
-public class PlayerComponent extends Component {
+public class PlayerComponent extends Component implements ForkableComponent {
 
 	private final int index;
 	private int resultPosition;
@@ -60,4 +62,12 @@ public class PlayerComponent extends Component {
 		this.winnerDeclaration = winner;
 	}
 
+	@Override
+	public PlayerComponent copyForFork(Entity copyTo) {
+		PlayerComponent copy = new PlayerComponent(index, name);
+		copy.resultPosition = resultPosition;
+		copy.winnerDeclaration = winnerDeclaration;
+		return copy;
+	}
+
 }
@@ -0,0 +1,35 @@
+package net.zomis.lachesis.players;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.io.ComponentCodec;
+
+/**
+ * Writes and reads {@link PlayerComponent} for {@link net.zomis.lachesis.core.GameCodec}
+ */
+public class PlayerComponentCodec implements ComponentCodec<PlayerComponent> {
+
+	private static final int UNDECIDED = 0;
+	private static final int WINNER = 1;
+	private static final int LOSER = 2;
+
+	@Override
+	public void write(PlayerComponent component, BinaryOutput out) {
+		out.writeVarInt(component.getIndex());
+		out.writeString(component.getName());
+		out.writeVarInt(component.getResultPosition());
+		Boolean winner = component.getWinnerDeclaration();
+		out.writeByte(winner == null ? UNDECIDED : winner ? WINNER : LOSER);
+	}
+
+	@Override
+	public PlayerComponent read(BinaryInput in, Entity entity) {
+		PlayerComponent component = new PlayerComponent(in.readVarInt(), in.readString());
+		component.setResultPosition(in.readVarInt());
+		int winner = in.readByte();
+		component.setWinnerDeclaration(winner == UNDECIDED ? null : winner == WINNER);
+		return component;
+	}
+
+}
@@ -0,0 +1,25 @@
+package net.zomis.lachesis.players;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.io.EventCodec;
+
+/**
+ * Writes and reads {@link PlayerEliminatedEvent} for {@link net.zomis.lachesis.replay.ReplayRecorder}
+ */
+public class PlayerEliminatedEventCodec implements EventCodec<PlayerEliminatedEvent> {
+
+	@Override
+	public void write(PlayerEliminatedEvent event, BinaryOutput out) {
+		out.writeVarInt(event.getEntity().getId());
+		out.writeBoolean(event.isDeclaredWinner());
+		out.writeVarInt(event.getResultPosition());
+	}
+
+	@Override
+	public PlayerEliminatedEvent read(BinaryInput in, Game game) {
+		return new PlayerEliminatedEvent(game.getEntity(in.readVarInt()), in.readBoolean(), in.readVarInt());
+	}
+
+}
@@ -1,14 +1,19 @@
 package net.zomis.lachesis.players;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.zomis.lachesis.core.Entity;
 import net.zomis.lachesis.core.Game;
 import net.zomis.lachesis.retrievers.ComponentRetriever;
 import net.zomis.lachesis.retrievers.Retrievers;
 
+/**
+ * Declares players as winners or losers, see {@link Standings} for the result positions they are given.
+ */
 public class Players {
 	
 	private static final ComponentRetriever<PlayerComponent> component = Retrievers.component(PlayerComponent.class);
@@ -27,26 +32,29 @@ public class Players {
 		eliminate(entity, true);
 	}
 	
+	/**
+	 * Declare these players as having lost the game, firing one {@link PlayersEliminatedEvent}.
+	 * The first player gets the worst free position, the next player the worst position after that, and so on.
+	 */
+	public static void loseGame(Collection<Entity> entities) {
+		eliminate(entities, false);
+	}
+	
+	/**
+	 * Declare these players as having won the game, firing one {@link PlayersEliminatedEvent}.
+	 * The first player gets the best free position, the next player the best position after that, and so on.
+	 */
+	public static void winGame(Collection<Entity> entities) {
+		eliminate(entities, true);
+	}
+	
 	private static void eliminate(Entity entity, boolean winner) {
-		List<Entity> players = new ArrayList<>(entity.getGame().getEntitiesWithComponent(PlayerComponent.class));
-		players.sort(Comparator.comparing(e -> e.getComponent(PlayerComponent.class).getIndex()));
-		
-		// if no one else has been eliminated, the player is at 1st place. Because the player itself has not been eliminated, it should get increased below.
-		int playerResultPosition = winner ? 0 : players.size() + 1;
-		
-		boolean posTaken = false;
-		do {
-			posTaken = false;
-			playerResultPosition += winner ? -1 : +1;
-			for (Entity pp : players) {
-				PlayerComponent playerComponent = pp.getComponent(PlayerComponent.class);
-				if (playerComponent.isEliminated() && playerComponent.getResultPosition() == playerResultPosition) {
-					posTaken = true;
-					break;
-				}
-			}
+		if (component.get(entity).isEliminated()) {
+			throw new IllegalStateException("Can't be eliminated more than once.");
 		}
-		while (posTaken);
+		// winners get the best free position counting from 1st place, losers the worst free position counting from last place
+		Standings standings = entity.getGame().getStandings();
+		int playerResultPosition = winner ? standings.nextWinnerPosition() : standings.nextLoserPosition();
 		
 		eliminate(entity, winner, playerResultPosition);
 	}
@@ -57,10 +65,46 @@ public class Players {
 			throw new IllegalStateException("Can't be eliminated more than once.");
 		}
 		Game game = entity.getGame();
-		game.executeCancellableEvent(new PlayerEliminatedEvent(entity, winner, resultPosition), () -> {
-			playerData.setResultPosition(resultPosition);
-			playerData.setWinnerDeclaration(winner);
+		game.executeCancellableEvent(new PlayerEliminatedEvent(entity, winner, resultPosition), () -> setResult(game, playerData, winner, resultPosition));
+	}
+	
+	private static void eliminate(Collection<Entity> entities, boolean winners) {
+		if (entities.isEmpty()) {
+			return;
+		}
+		List<Entity> players = new ArrayList<>(entities);
+		Game game = players.get(0).getGame();
+		Map<Entity, PlayerComponent> playerData = new IdentityHashMap<>();
+		for (Entity entity : players) {
+			if (entity.getGame() != game) {
+				throw new IllegalArgumentException("All players must be in the same game");
+			}
+			PlayerComponent data = component.get(entity);
+			if (data.isEliminated()) {
+				throw new IllegalStateException("Can't be eliminated more than once.");
+			}
+			if (playerData.put(entity, data) != null) {
+				throw new IllegalArgumentException("Player is included more than once: " + entity);
+			}
+		}
+		int[] resultPositions = game.getStandings().nextPositions(winners, players.size());
+		game.executeCancellableEvent(new PlayersEliminatedEvent(players, winners, resultPositions), () -> {
+			for (int i = 0; i < players.size(); i++) {
+				setResult(game, playerData.get(players.get(i)), winners, resultPositions[i]);
+			}
+		});
+	}
+	
+	private static void setResult(Game game, PlayerComponent playerData, boolean winner, int resultPosition) {
+		Standings standings = game.getStandings();
+		game.recordUndo(() -> {
+			playerData.setResultPosition(0);
+			playerData.setWinnerDeclaration(null);
+			standings.release(resultPosition);
 		});
+		playerData.setResultPosition(resultPosition);
+		playerData.setWinnerDeclaration(winner);
+		standings.take(resultPosition);
 	}
 
 }
@@ -0,0 +1,55 @@
+package net.zomis.lachesis.players;
+
+import java.util.Collections;
+import java.util.List;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.events.CancellableEvent;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Several players declared as winners or losers at once, see {@link Players#winGame(java.util.Collection)}
+ */
+public class PlayersEliminatedEvent implements IEvent, CancellableEvent {
+
+	private final List<Entity> entities;
+	private final boolean declaredWinners;
+	private final int[] resultPositions;
+	private boolean cancelled;
+
+	public PlayersEliminatedEvent(List<Entity> entities, boolean declaredWinners, int[] resultPositions) {
+		if (entities.size() != resultPositions.length) {
+			throw new IllegalArgumentException("Expected " + entities.size() + " result positions but got " + resultPositions.length);
+		}
+		this.entities = Collections.unmodifiableList(entities);
+		this.declaredWinners = declaredWinners;
+		this.resultPositions = resultPositions.clone();
+	}
+
+	public List<Entity> getEntities() {
+		return entities;
+	}
+
+	/**
+	 * @param index Index in {@link #getEntities()}
+	 * @return The result position of the player at the index
+	 */
+	public int getResultPosition(int index) {
+		return resultPositions[index];
+	}
+
+	public boolean isDeclaredWinners() {
+		return declaredWinners;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public void setCancelled(boolean cancelled) {
+		this.cancelled = cancelled;
+	}
+
+}
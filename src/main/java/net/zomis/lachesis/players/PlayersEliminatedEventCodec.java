@@ -0,0 +1,40 @@
+package net.zomis.lachesis.players;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.io.EventCodec;
+
+/**
+ * Writes and reads {@link PlayersEliminatedEvent} for {@link net.zomis.lachesis.replay.ReplayRecorder}
+ */
+public class PlayersEliminatedEventCodec implements EventCodec<PlayersEliminatedEvent> {
+
+	@Override
+	public void write(PlayersEliminatedEvent event, BinaryOutput out) {
+		out.writeBoolean(event.isDeclaredWinners());
+		out.writeVarInt(event.getEntities().size());
+		for (int i = 0; i < event.getEntities().size(); i++) {
+			out.writeVarInt(event.getEntities().get(i).getId());
+			out.writeVarInt(event.getResultPosition(i));
+		}
+	}
+
+	@Override
+	public PlayersEliminatedEvent read(BinaryInput in, Game game) {
+		boolean winners = in.readBoolean();
+		int count = in.readVarInt();
+		List<Entity> entities = new ArrayList<>(count);
+		int[] positions = new int[count];
+		for (int i = 0; i < count; i++) {
+			entities.add(game.getEntity(in.readVarInt()));
+			positions[i] = in.readVarInt();
+		}
+		return new PlayersEliminatedEvent(entities, winners, positions);
+	}
+
+}
@@ -0,0 +1,124 @@
+package net.zomis.lachesis.players;
+
+import java.util.Iterator;
+import java.util.TreeSet;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.EntityFamily;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.retrievers.ComponentRetriever;
+import net.zomis.lachesis.retrievers.Retrievers;
+
+/**
+ * The result positions of a game that no player has been given yet.
+ * Result positions count from 1, the top winner, up to the number of players. A winner is given the best free position
+ * and a loser the worst free position, as described by {@link PlayerComponent#getResultPosition()}.
+ * <p>
+ * Positions are taken as players are eliminated, so the next position for a winner or a loser is found in logarithmic time.
+ * The free positions are found again from the players of the game when a player joins or leaves the game.
+ * <p>
+ * Obtain the standings of a game through {@link Game#getStandings()}.
+ *
+ * @author Simon Forsberg
+ */
+public final class Standings {
+
+	private static final ComponentRetriever<PlayerComponent> component = Retrievers.component(PlayerComponent.class);
+
+	private final EntityFamily players;
+	private final TreeSet<Integer> free = new TreeSet<>();
+	/**
+	 * The modifications of the players family when the free positions were last found
+	 */
+	private int modifications;
+	private boolean built;
+
+	public Standings(Game game) {
+		this.players = game.getFamily(PlayerComponent.class);
+	}
+
+	/**
+	 * @return The best position that is free, counting from 1st place
+	 * @throws IllegalStateException If all positions have been taken
+	 */
+	public synchronized int nextWinnerPosition() {
+		update();
+		if (free.isEmpty()) {
+			throw new IllegalStateException("All result positions have been taken");
+		}
+		return free.first();
+	}
+
+	/**
+	 * @return The worst position that is free, counting from last place
+	 * @throws IllegalStateException If all positions have been taken
+	 */
+	public synchronized int nextLoserPosition() {
+		update();
+		if (free.isEmpty()) {
+			throw new IllegalStateException("All result positions have been taken");
+		}
+		return free.last();
+	}
+
+	/**
+	 * @return The number of positions between 1 and the number of players that no player has been given,
+	 * which is the number of players that have not been eliminated unless players have left the game
+	 */
+	public synchronized int getFreePositions() {
+		update();
+		return free.size();
+	}
+
+	/**
+	 * @param winners True for the best free positions in ascending order, false for the worst in descending order
+	 * @param count The number of positions
+	 * @return The next free positions, without taking them
+	 */
+	synchronized int[] nextPositions(boolean winners, int count) {
+		update();
+		if (count > free.size()) {
+			throw new IllegalStateException("Only " + free.size() + " result positions are free, " + count + " are needed");
+		}
+		int[] result = new int[count];
+		Iterator<Integer> positions = winners ? free.iterator() : free.descendingIterator();
+		for (int i = 0; i < count; i++) {
+			result[i] = positions.next();
+		}
+		return result;
+	}
+
+	synchronized void take(int position) {
+		update();
+		free.remove(position);
+	}
+
+	synchronized void release(int position) {
+		if (position <= players.size()) {
+			free.add(position);
+		}
+	}
+
+	private void update() {
+		if (built && modifications == players.getModifications()) {
+			return;
+		}
+		free.clear();
+		for (int position = 1; position <= players.size(); position++) {
+			free.add(position);
+		}
+		for (int i = 0; i < players.size(); i++) {
+			Entity player = players.get(i);
+			free.remove(component.get(player).getResultPosition());
+		}
+		modifications = players.getModifications();
+		built = true;
+	}
+
+	@Override
+	public synchronized String toString() {
+		update();
+		return "Standings [players=" + players.size() + ", free=" + free + "]";
+	}
+
+}
@@ -0,0 +1,17 @@
+package net.zomis.lachesis.replay;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Performs the action that originally caused a recorded top-level event, such as {@link net.zomis.lachesis.players.Players#winGame}
+ * for a {@link net.zomis.lachesis.players.PlayerEliminatedEvent}. The game then executes the event and all its consequences again.
+ *
+ * @param <T> The event type
+ */
+@FunctionalInterface
+public interface EventApplier<T extends IEvent> {
+
+	void apply(Game game, T event);
+
+}
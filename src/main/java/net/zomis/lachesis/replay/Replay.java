@@ -0,0 +1,241 @@
+package net.zomis.lachesis.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GameCodec;
+import net.zomis.lachesis.events.IEvent;
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.EventCodec;
+
+/**
+ * Rebuilds a game from a log written by {@link ReplayRecorder}. To replay to a turn, the state is restored from the
+ * closest snapshot before the turn, and the events that were executed outside of other events after the snapshot
+ * are applied again. Replaying relies on the game being deterministic, as all nested events are caused by these events.
+ * <p>
+ * The game to replay into must be set up the same way as the recorded game, with the same systems and handlers,
+ * and it should not be deferred.
+ *
+ * @author Simon Forsberg
+ */
+public class Replay {
+
+	private static final class Registration<T extends IEvent> {
+		private final EventCodec<T> codec;
+		private final EventApplier<T> applier;
+
+		Registration(EventCodec<T> codec, EventApplier<T> applier) {
+			this.codec = codec;
+			this.applier = applier;
+		}
+
+		void apply(BinaryInput in, Game game) {
+			applier.apply(game, codec.read(in, game));
+		}
+	}
+
+	private final ByteBuffer log;
+	private final GameCodec snapshots;
+	private final Map<Integer, Registration<?>> registrations = new HashMap<>();
+
+	/**
+	 * Positions of the snapshot records and their turns, in order
+	 */
+	private int[] snapshotTurns = new int[8];
+	private int[] snapshotPositions = new int[8];
+	private int snapshotCount;
+
+	/**
+	 * Positions of the turn markers, indexed by turn. The position of turn 0 is the position after the header.
+	 */
+	private int[] turnPositions = new int[64];
+	private int lastTurn;
+
+	/**
+	 * @param log The bytes of the log
+	 * @param snapshots The codec that was used for snapshots when recording
+	 */
+	public Replay(ByteBuffer log, GameCodec snapshots) {
+		this.log = log.duplicate();
+		this.snapshots = snapshots;
+		index();
+	}
+
+	/**
+	 * @param path The log file, which is memory-mapped
+	 * @param snapshots The codec that was used for snapshots when recording
+	 * @return A replay of the log
+	 * @throws IOException If reading fails
+	 */
+	public static Replay open(Path path, GameCodec snapshots) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new Replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), snapshots);
+		}
+	}
+
+	/**
+	 * @param <T> The event type
+	 * @param schemaId The schema id that was used for the event class when recording
+	 * @param codec How to read the event
+	 * @param applier How to apply the event to a game
+	 * @return This replay
+	 */
+	public <T extends IEvent> Replay register(int schemaId, EventCodec<T> codec, EventApplier<T> applier) {
+		registrations.put(schemaId, new Registration<>(codec, applier));
+		return this;
+	}
+
+	private void index() {
+		BinaryInput in = new BinaryInput(log.duplicate());
+		if (in.readInt() != ReplayLog.MAGIC) {
+			throw new IllegalArgumentException("Not a replay log");
+		}
+		int version = in.readVarInt();
+		if (version != ReplayLog.VERSION) {
+			throw new IllegalArgumentException("Unsupported version: " + version);
+		}
+		turnPositions[0] = in.position();
+		while (in.hasRemaining()) {
+			int position = in.position();
+			int kind = in.readByte();
+			switch (kind) {
+				case ReplayLog.SNAPSHOT:
+					int turn = in.readVarInt();
+					skip(in, in.readVarInt());
+					addSnapshot(turn, position);
+					break;
+				case ReplayLog.TURN:
+					lastTurn = in.readVarInt();
+					if (lastTurn >= turnPositions.length) {
+						turnPositions = Arrays.copyOf(turnPositions, Math.max(lastTurn + 1, turnPositions.length * 2));
+					}
+					turnPositions[lastTurn] = position;
+					break;
+				default:
+					skipRecord(in, kind);
+			}
+		}
+		if (snapshotCount == 0) {
+			throw new IllegalArgumentException("Replay log does not contain any snapshot");
+		}
+	}
+
+	private void addSnapshot(int turn, int position) {
+		if (snapshotCount == snapshotTurns.length) {
+			snapshotTurns = Arrays.copyOf(snapshotTurns, snapshotCount * 2);
+			snapshotPositions = Arrays.copyOf(snapshotPositions, snapshotCount * 2);
+		}
+		snapshotTurns[snapshotCount] = turn;
+		snapshotPositions[snapshotCount] = position;
+		snapshotCount++;
+	}
+
+	private static void skip(BinaryInput in, int length) {
+		in.position(in.position() + length);
+	}
+
+	private static void skipRecord(BinaryInput in, int kind) {
+		switch (kind) {
+			case ReplayLog.EVENT:
+				in.readVarInt();
+				if (in.readVarInt() == 0) {
+					in.readString();
+				}
+				skip(in, in.readVarInt());
+				break;
+			case ReplayLog.PRE:
+			case ReplayLog.POST:
+				in.readVarInt();
+				break;
+			case ReplayLog.FINISHED:
+				in.readVarInt();
+				in.readBoolean();
+				break;
+			default:
+				throw new IllegalStateException("Unknown record kind " + kind + " at position " + (in.position() - 1));
+		}
+	}
+
+	/**
+	 * @return The last turn that was started in the log
+	 */
+	public int getLastTurn() {
+		return lastTurn;
+	}
+
+	/**
+	 * Replaces the state of a game with the state at the start of a turn
+	 * 
+	 * @param game The game to replay into
+	 * @param turn The turn, between 0 and {@link #getLastTurn()}
+	 */
+	public void replayTo(Game game, int turn) {
+		if (turn < 0 || turn > lastTurn) {
+			throw new IllegalArgumentException("Turn " + turn + " is not between 0 and " + lastTurn);
+		}
+		replay(game, turn, turnPositions[turn]);
+	}
+
+	/**
+	 * Replaces the state of a game with the state at the end of the log
+	 * 
+	 * @param game The game to replay into
+	 */
+	public void replayAll(Game game) {
+		replay(game, lastTurn, Integer.MAX_VALUE);
+	}
+
+	private void replay(Game game, int turn, int end) {
+		int snapshot = snapshotCount - 1;
+		while (snapshotTurns[snapshot] > turn) {
+			snapshot--;
+		}
+		BinaryInput in = new BinaryInput(log.duplicate());
+		in.position(snapshotPositions[snapshot]);
+		in.readByte();
+		in.readVarInt();
+		int length = in.readVarInt();
+		snapshots.read(new BinaryInput(in.readBytes(length)), game);
+
+		while (in.hasRemaining() && in.position() < end) {
+			int kind = in.readByte();
+			if (kind == ReplayLog.SNAPSHOT) {
+				in.readVarInt();
+				skip(in, in.readVarInt());
+			}
+			else if (kind == ReplayLog.TURN) {
+				in.readVarInt();
+			}
+			else if (kind == ReplayLog.EVENT) {
+				applyEvent(in, game);
+			}
+			else {
+				skipRecord(in, kind);
+			}
+		}
+	}
+
+	private void applyEvent(BinaryInput in, Game game) {
+		int depth = in.readVarInt();
+		int schemaId = in.readVarInt();
+		String className = schemaId == 0 ? in.readString() : null;
+		int length = in.readVarInt();
+		if (depth != 0) {
+			skip(in, length);
+			return;
+		}
+		Registration<?> registration = registrations.get(schemaId);
+		if (registration == null) {
+			throw new IllegalStateException("Unable to replay event " + (className != null ? className : "with schema id " + schemaId));
+		}
+		registration.apply(new BinaryInput(in.readBytes(length)), game);
+	}
+
+}
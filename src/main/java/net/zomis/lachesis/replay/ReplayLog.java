@@ -0,0 +1,45 @@
+package net.zomis.lachesis.replay;
+
+/**
+ * Record kinds of the replay log format
+ */
+final class ReplayLog {
+
+	static final int MAGIC = 0x4C415250;
+	static final int VERSION = 1;
+
+	/**
+	 * Turn number, length and the bytes written by {@link net.zomis.lachesis.core.GameCodec}
+	 */
+	static final int SNAPSHOT = 1;
+
+	/**
+	 * Turn number of the turn that starts
+	 */
+	static final int TURN = 2;
+
+	/**
+	 * Depth, schema id, length and the bytes of the event. Schema id 0 is followed by the class name of an event without a codec.
+	 * Each started event gets the next sequence number, starting from 0.
+	 */
+	static final int EVENT = 3;
+
+	/**
+	 * Number of events started since the event
+	 */
+	static final int PRE = 4;
+
+	/**
+	 * Number of events started since the event
+	 */
+	static final int POST = 5;
+
+	/**
+	 * Number of events started since the event, and whether or not it was cancelled
+	 */
+	static final int FINISHED = 6;
+
+	private ReplayLog() {
+	}
+
+}
@@ -0,0 +1,193 @@
+package net.zomis.lachesis.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GameCodec;
+import net.zomis.lachesis.events.EventMonitor;
+import net.zomis.lachesis.events.IEvent;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.io.EventCodec;
+
+/**
+ * Records every event executed in a game into an append-only binary log, together with the phases of each event,
+ * whether or not it was cancelled, turn markers and periodic snapshots of the game state.
+ * The log is written to the channel at every turn, when the buffer is full and when recording stops.
+ * <p>
+ * Only the data of events with a registered codec is written, other events are recorded by class name.
+ * To be able to replay a game, every event that is executed outside of other events must have a codec.
+ *
+ * @author Simon Forsberg
+ * @see Replay
+ */
+public class ReplayRecorder implements EventMonitor {
+
+	private static final int FLUSH_SIZE = 1 << 16;
+
+	private final Game game;
+	private final GameCodec snapshots;
+	private final WritableByteChannel channel;
+	private final int snapshotInterval;
+
+	private final Map<Class<?>, Integer> schemaIds = new HashMap<>();
+	private final Map<Class<?>, EventCodec<IEvent>> codecs = new HashMap<>();
+	private final Map<IEvent, Integer> started = new IdentityHashMap<>();
+
+	private final BinaryOutput out = new BinaryOutput(FLUSH_SIZE);
+	private final BinaryOutput scratch = new BinaryOutput();
+	private int sequence;
+	private int turn;
+
+	/**
+	 * @param game The game to record
+	 * @param snapshots The codec used for snapshots of the game state
+	 * @param channel Where to write the log
+	 * @param snapshotInterval Number of turns between each snapshot
+	 */
+	public ReplayRecorder(Game game, GameCodec snapshots, WritableByteChannel channel, int snapshotInterval) {
+		if (snapshotInterval <= 0) {
+			throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+		}
+		this.game = game;
+		this.snapshots = snapshots;
+		this.channel = channel;
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	/**
+	 * @param <T> The event type
+	 * @param schemaId The id to write for the event class, must be positive and never change between recording and replaying
+	 * @param eventClass The event class
+	 * @param codec How to write the event
+	 * @return This recorder
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends IEvent> ReplayRecorder register(int schemaId, Class<T> eventClass, EventCodec<T> codec) {
+		if (schemaId <= 0) {
+			throw new IllegalArgumentException("Schema id must be positive: " + schemaId);
+		}
+		schemaIds.put(eventClass, schemaId);
+		codecs.put(eventClass, (EventCodec<IEvent>) codec);
+		return this;
+	}
+
+	/**
+	 * Writes the header and a snapshot of the current state as turn 0, and starts recording events
+	 */
+	public void start() {
+		if (game.getEvents().getMonitor() != null) {
+			throw new IllegalStateException("Events of the game are already monitored by " + game.getEvents().getMonitor());
+		}
+		out.writeInt(ReplayLog.MAGIC);
+		out.writeVarInt(ReplayLog.VERSION);
+		writeSnapshot();
+		game.getEvents().setMonitor(this);
+	}
+
+	/**
+	 * Marks the start of the next turn, and writes a snapshot if it is time for one
+	 */
+	public void nextTurn() {
+		turn++;
+		out.writeByte(ReplayLog.TURN);
+		out.writeVarInt(turn);
+		if (turn % snapshotInterval == 0) {
+			writeSnapshot();
+		}
+		flush();
+	}
+
+	/**
+	 * Stops recording events and writes what remains of the log. Does not close the channel.
+	 */
+	public void stop() {
+		if (game.getEvents().getMonitor() == this) {
+			game.getEvents().setMonitor(null);
+		}
+		started.clear();
+		flush();
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	private void writeSnapshot() {
+		scratch.clear();
+		snapshots.write(game, scratch);
+		out.writeByte(ReplayLog.SNAPSHOT);
+		out.writeVarInt(turn);
+		out.writeVarInt(scratch.size());
+		out.writeBytes(scratch.toByteBuffer());
+	}
+
+	private void flush() {
+		try {
+			out.writeTo(channel);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		out.clear();
+	}
+
+	@Override
+	public void eventStarted(IEvent event, int depth) {
+		started.put(event, sequence++);
+		out.writeByte(ReplayLog.EVENT);
+		out.writeVarInt(depth);
+		EventCodec<IEvent> codec = codecs.get(event.getClass());
+		if (codec == null) {
+			out.writeVarInt(0);
+			out.writeString(event.getClass().getName());
+			out.writeVarInt(0);
+		}
+		else {
+			scratch.clear();
+			codec.write(event, scratch);
+			out.writeVarInt(schemaIds.get(event.getClass()));
+			out.writeVarInt(scratch.size());
+			out.writeBytes(scratch.toByteBuffer());
+		}
+		if (out.size() >= FLUSH_SIZE) {
+			flush();
+		}
+	}
+
+	@Override
+	public void preEvent(IEvent event, int depth) {
+		writePhase(ReplayLog.PRE, event);
+	}
+
+	@Override
+	public void postEvent(IEvent event, int depth) {
+		writePhase(ReplayLog.POST, event);
+	}
+
+	private void writePhase(int kind, IEvent event) {
+		Integer eventSequence = started.get(event);
+		if (eventSequence == null) {
+			// pre- and post-events that are executed on their own are not part of the replay
+			return;
+		}
+		out.writeByte(kind);
+		out.writeVarInt(sequence - eventSequence);
+	}
+
+	@Override
+	public void eventFinished(IEvent event, int depth, boolean cancelled) {
+		Integer eventSequence = started.remove(event);
+		if (eventSequence == null) {
+			return;
+		}
+		out.writeByte(ReplayLog.FINISHED);
+		out.writeVarInt(sequence - eventSequence);
+		out.writeBoolean(cancelled);
+	}
+
+}
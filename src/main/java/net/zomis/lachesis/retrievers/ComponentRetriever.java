@@ -1,27 +1,31 @@
 package net.zomis.lachesis.retrievers;
 
 import java.util.Objects;
-import java.util.Set;
 
 import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.ComponentType;
 import net.zomis.lachesis.core.Entity;
 import net.zomis.lachesis.core.Game;
 
 public class ComponentRetriever<T extends Component> {
 
 	private final Class<T> clazz;
+	private final int typeId;
 
 	public ComponentRetriever(Class<T> clazz) {
 		this.clazz = clazz;
+		this.typeId = clazz == null ? -1 : ComponentType.idOf(clazz);
 	}
 
 	public boolean has(Entity entity) {
-		return entity.hasComponent(clazz);
+		return entity.hasComponent(typeId);
 	}
 
 	public T get(Entity entity) {
-		Objects.requireNonNull(entity, "Cannot retrieve component " + clazz.getSimpleName() + " on a null entity");
-		return entity.getComponent(clazz);
+		if (entity == null) {
+			throw new NullPointerException("Cannot retrieve component " + clazz.getSimpleName() + " on a null entity");
+		}
+		return clazz.cast(entity.getComponent(typeId));
 	}
 
 	public T required(Entity entity) {
@@ -51,11 +55,7 @@ public class ComponentRetriever<T extends Component> {
 	}
 
 	public static <T extends Component> T singleton(Game game, Class<T> class1) {
-		Set<Entity> all = game.getEntitiesWithComponent(class1);
-		if (all.size() != 1) {
-			throw new IllegalStateException("Expected to find exactly one " + class1.getSimpleName() + ", found " + all.size());
-		}
-		return all.iterator().next().getComponent(class1);
+		return game.getSingleton(class1);
 	}
 
 }
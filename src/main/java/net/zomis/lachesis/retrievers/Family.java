@@ -0,0 +1,19 @@
+package net.zomis.lachesis.retrievers;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import net.zomis.lachesis.core.Component;
+
+/**
+ * Injects an {@link net.zomis.lachesis.core.EntityFamily} field with the entities
+ * that have all of the components in {@link #value()} and none of the components in {@link #exclude()}.
+ */
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Family {
+	Class<? extends Component>[] value();
+	Class<? extends Component>[] exclude() default {};
+}
@@ -0,0 +1,136 @@
+package net.zomis.lachesis.retrievers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import net.zomis.lachesis.core.Component;
+import net.zomis.lachesis.core.EntityFamily;
+import net.zomis.lachesis.core.Game;
+
+/**
+ * The fields to inject for a class, with a setter and a value factory for each field.
+ * Plans are computed once per class, so that injecting a new instance does not need any reflection.
+ *
+ * @author Simon Forsberg
+ */
+final class InjectionPlan {
+
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final ClassValue<InjectionPlan> plans = new ClassValue<InjectionPlan>() {
+		@Override
+		protected InjectionPlan computeValue(Class<?> type) {
+			return AccessController.doPrivileged((PrivilegedAction<InjectionPlan>) () -> new InjectionPlan(type));
+		}
+	};
+
+	private static final class FieldInjection {
+		private final MethodHandle setter;
+		private final Function<Game, Object> value;
+
+		FieldInjection(MethodHandle setter, Function<Game, Object> value) {
+			this.setter = setter;
+			this.value = value;
+		}
+	}
+
+	private final FieldInjection[] injections;
+	/**
+	 * True if any field is injected with a value that belongs to the game, such as a family
+	 */
+	private final boolean gameSpecific;
+
+	private InjectionPlan(Class<?> type) {
+		List<Field> fields = new ArrayList<>();
+		for (Class<?> clazz = type; clazz != Object.class; clazz = clazz.getSuperclass()) {
+			fields.addAll(Arrays.asList(clazz.getDeclaredFields()));
+		}
+		List<FieldInjection> result = new ArrayList<>();
+		fields.stream().filter(field -> field.getAnnotation(Retriever.class) != null).forEach(field -> planRetriever(field, result));
+		fields.stream().filter(field -> field.getAnnotation(RetrieverSingleton.class) != null).forEach(field -> planSingleton(field, result));
+		fields.stream().filter(field -> field.getAnnotation(Family.class) != null).forEach(field -> planFamily(field, result));
+		this.injections = result.toArray(new FieldInjection[result.size()]);
+		this.gameSpecific = fields.stream().anyMatch(field -> field.getAnnotation(RetrieverSingleton.class) != null || field.getAnnotation(Family.class) != null);
+	}
+
+	static InjectionPlan of(Class<?> clazz) {
+		return plans.get(clazz);
+	}
+
+	boolean isGameSpecific() {
+		return gameSpecific;
+	}
+
+	void inject(Object object, Game game) {
+		for (FieldInjection injection : injections) {
+			try {
+				injection.setter.invokeExact(object, injection.value.apply(game));
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	private static void planRetriever(Field field, List<FieldInjection> result) {
+		if (field.getType() != ComponentRetriever.class) {
+			throw new RuntimeException(field.getType() + " is not a ComponentRetriever");
+		}
+
+		Type genericFieldType = field.getGenericType();
+
+		if (genericFieldType instanceof ParameterizedType) {
+			ParameterizedType aType = (ParameterizedType) genericFieldType;
+			Type[] fieldArgTypes = aType.getActualTypeArguments();
+			Class<?> fieldArgClass = (Class<?>) fieldArgTypes[0];
+			// component retrievers do not depend on the game, so one retriever can be shared by all instances
+			ComponentRetriever<?> retriever = Retrievers.component(fieldArgClass.asSubclass(Component.class));
+			result.add(new FieldInjection(setter(field), game -> retriever));
+		}
+	}
+
+	private static void planSingleton(Field field, List<FieldInjection> result) {
+		Class<? extends Component> clazz = field.getType().asSubclass(Component.class);
+		result.add(new FieldInjection(setter(field), game -> Retrievers.singleton(game, clazz)));
+	}
+
+	private static void planFamily(Field field, List<FieldInjection> result) {
+		if (field.getType() != EntityFamily.class) {
+			throw new RuntimeException(field.getType() + " is not an EntityFamily");
+		}
+		Family family = field.getAnnotation(Family.class);
+		Collection<Class<? extends Component>> all = Arrays.asList(family.value());
+		Collection<Class<? extends Component>> none = Arrays.asList(family.exclude());
+		result.add(new FieldInjection(setter(field), game -> game.getFamily(all, none)));
+	}
+
+	private static MethodHandle setter(Field field) {
+		field.setAccessible(true);
+		try {
+			return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+		} catch (IllegalAccessException e) {
+			// final fields can only be set through reflection
+			try {
+				MethodHandle set = lookup.findVirtual(Field.class, "set", SETTER_TYPE);
+				return set.bindTo(field);
+			} catch (NoSuchMethodException | IllegalAccessException e2) {
+				e2.addSuppressed(e);
+				throw new RuntimeException(e2);
+			}
+		}
+	}
+
+}
@@ -1,15 +1,5 @@
 package net.zomis.lachesis.retrievers;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
-
 import net.zomis.lachesis.core.Component;
 import net.zomis.lachesis.core.Entity;
 import net.zomis.lachesis.core.Game;
@@ -37,62 +27,27 @@ public class Retrievers {
 	}
 
 	public static <T extends Component> T singleton(Game game, Class<T> class1) {
-		Set<Entity> all = game.getEntitiesWithComponent(class1);
-		if (all.size() != 1) {
-			throw new IllegalStateException("Expected to find exactly one " + class1.getSimpleName() + ", found " + all.size());
-		}
-		return all.iterator().next().getComponent(class1);
+		return game.getSingleton(class1);
 	}
 
+	/**
+	 * Injects all fields annotated with {@link Retriever}, {@link RetrieverSingleton} and {@link Family}.
+	 * The fields of each class are only looked up once.
+	 * 
+	 * @param object The object to inject fields of
+	 * @param game The game to get values from
+	 */
 	public static void inject(Object object, Game game) {
-		List<Field> fields = AccessController.doPrivileged((PrivilegedAction<List<Field>>)() -> {
-			Class<?> clazz = object.getClass();
-			List<Field> result = new ArrayList<>();
-			do {
-				result.addAll(Arrays.asList(clazz.getDeclaredFields()));
-				clazz = clazz.getSuperclass();
-			}
-			while (clazz != Object.class);
-			return result;
-		});
-		AccessController.doPrivileged((PrivilegedAction<Void>)() -> {
-			fields.stream().filter(field -> field.getAnnotation(Retriever.class) != null).forEach(field -> injectField(object, field, game));
-			fields.stream().filter(field -> field.getAnnotation(RetrieverSingleton.class) != null).forEach(field -> injectSingleton(object, field, game));
-			return null;
-		});
-	}
-
-	private static void injectSingleton(Object obj, Field field, Game game) {
-		Class<? extends Component> clazz = field.getType().asSubclass(Component.class);
-		AccessController.doPrivileged((PrivilegedAction<Void>)() -> {
-			field.setAccessible(true);
-			try {
-				field.set(obj, Retrievers.singleton(game, clazz));
-			} catch (IllegalArgumentException | IllegalAccessException e) {
-				throw new RuntimeException(e);
-			}
-			return null;
-		});
+		InjectionPlan.of(object.getClass()).inject(object, game);
 	}
 
-	private static void injectField(Object obj, Field field, Game game) {
-		if (field.getType() != ComponentRetriever.class) {
-			throw new RuntimeException(field.getType() + " is not a ComponentRetriever");
-		}
-
-		Type genericFieldType = field.getGenericType();
-
-		if (genericFieldType instanceof ParameterizedType) {
-			ParameterizedType aType = (ParameterizedType) genericFieldType;
-			Type[] fieldArgTypes = aType.getActualTypeArguments();
-			Class<?> fieldArgClass = (Class<?>) fieldArgTypes[0];
-			try {
-				field.setAccessible(true);
-				field.set(obj, Retrievers.component(fieldArgClass.asSubclass(Component.class)));
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
-			}
-		}
+	/**
+	 * @param clazz The class to check
+	 * @return True if instances of the class get fields injected with values that belong to one game,
+	 * which are fields annotated with {@link RetrieverSingleton} or {@link Family}
+	 */
+	public static boolean injectsGameState(Class<?> clazz) {
+		return InjectionPlan.of(clazz).isGameSpecific();
 	}
 	
 }
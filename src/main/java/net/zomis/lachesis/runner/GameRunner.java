@@ -0,0 +1,134 @@
+package net.zomis.lachesis.runner;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import net.zomis.lachesis.core.Game;
+
+/**
+ * Runs many independent games in parallel. Each game has a mailbox of inputs, and at most one worker
+ * at a time processes the inputs of a game, so the game itself is only ever accessed by one thread at a time.
+ * All inputs that are waiting when a worker picks up a game are processed together as one turn,
+ * after which the deferred events of the game are drained.
+ * <p>
+ * By default the games are run on a work-stealing pool with one worker per processor.
+ *
+ * @author Simon Forsberg
+ */
+public class GameRunner {
+
+	private static final Logger logger = LogManager.getLogger(GameRunner.class);
+
+	private final Executor executor;
+	private final ForkJoinPool ownPool;
+	private final Set<RunningGame> games = ConcurrentHashMap.newKeySet();
+	private volatile BiConsumer<Game, Throwable> errorHandler = (game, e) -> logger.error("Input failed in " + game, e);
+
+	public GameRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param parallelism The number of workers
+	 */
+	public GameRunner(int parallelism) {
+		this.ownPool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+		this.executor = ownPool;
+	}
+
+	/**
+	 * @param executor The executor to run games on, which is not shut down by this runner
+	 */
+	public GameRunner(Executor executor) {
+		this.ownPool = null;
+		this.executor = executor;
+	}
+
+	/**
+	 * @param game The game to run
+	 * @return A handle for submitting inputs to the game
+	 */
+	public RunningGame add(Game game) {
+		return add(game, null);
+	}
+
+	/**
+	 * @param game The game to run
+	 * @param afterTurn What to do after each turn of the game, or null
+	 * @return A handle for submitting inputs to the game
+	 */
+	public RunningGame add(Game game, Consumer<Game> afterTurn) {
+		RunningGame running = new RunningGame(this, game, afterTurn);
+		games.add(running);
+		return running;
+	}
+
+	/**
+	 * Stops accepting inputs for a game. Inputs that have already been submitted are still processed.
+	 * 
+	 * @param game The game to remove
+	 * @return True if the game was running in this runner
+	 */
+	public boolean remove(RunningGame game) {
+		if (games.remove(game)) {
+			game.close();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return The number of games in this runner
+	 */
+	public int getGameCount() {
+		return games.size();
+	}
+
+	/**
+	 * @param errorHandler What to do when an input throws a runtime exception. The remaining inputs of the turn are still processed.
+	 * Errors are not handled, they end the turn and are thrown to the worker.
+	 */
+	public void setErrorHandler(BiConsumer<Game, Throwable> errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	void schedule(RunningGame game) {
+		executor.execute(game);
+	}
+
+	void failed(Game game, Throwable e) {
+		errorHandler.accept(game, e);
+	}
+
+	/**
+	 * Stops the workers after the inputs that have already been submitted are processed.
+	 * Does nothing if the runner was created with an executor of its own.
+	 */
+	public void shutdown() {
+		if (ownPool != null) {
+			ownPool.shutdown();
+		}
+	}
+
+	/**
+	 * @param timeout The maximum time to wait
+	 * @param unit The unit of the timeout
+	 * @return True if the workers have stopped
+	 * @throws InterruptedException If interrupted while waiting
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		if (ownPool == null) {
+			throw new IllegalStateException("Runner does not own its executor");
+		}
+		return ownPool.awaitTermination(timeout, unit);
+	}
+
+}
@@ -0,0 +1,172 @@
+package net.zomis.lachesis.runner;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import net.zomis.lachesis.core.Game;
+
+/**
+ * A game in a {@link GameRunner}, with its mailbox of inputs and statistics about its turns.
+ * The latency of a turn is the time from when its oldest input was submitted until the turn was finished.
+ *
+ * @author Simon Forsberg
+ */
+public final class RunningGame implements Runnable {
+
+	private static final class Input {
+		private final Consumer<Game> action;
+		private final long submitted;
+
+		Input(Consumer<Game> action, long submitted) {
+			this.action = action;
+			this.submitted = submitted;
+		}
+	}
+
+	private final GameRunner runner;
+	private final Game game;
+	private final Consumer<Game> afterTurn;
+
+	private final Queue<Input> inputs = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile boolean closed;
+
+	private volatile long turns;
+	private volatile long totalLatency;
+	private volatile long maxLatency;
+	private volatile long lastLatency;
+
+	RunningGame(GameRunner runner, Game game, Consumer<Game> afterTurn) {
+		this.runner = runner;
+		this.game = game;
+		this.afterTurn = afterTurn;
+	}
+
+	/**
+	 * Queues an input to be performed on the game by a worker. May be called from any thread.
+	 * If the runner rejects the game, the exception is thrown here and the input stays queued until the game is scheduled again.
+	 * 
+	 * @param input What to do with the game
+	 */
+	public void submit(Consumer<Game> input) {
+		if (closed) {
+			throw new IllegalStateException("Game has been removed from its runner");
+		}
+		inputs.add(new Input(input, System.nanoTime()));
+		pending.incrementAndGet();
+		if (scheduled.compareAndSet(false, true)) {
+			schedule();
+		}
+	}
+
+	private void schedule() {
+		try {
+			runner.schedule(this);
+		}
+		catch (RuntimeException e) {
+			scheduled.set(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * Processes the inputs that are waiting as one turn. Only called by the runner.
+	 * Errors and exceptions thrown by the error handler end the turn, the remaining inputs are processed in the next turn.
+	 */
+	@Override
+	public void run() {
+		int count = pending.get();
+		int processed = 0;
+		long oldest = Long.MAX_VALUE;
+		try {
+			while (processed < count) {
+				Input input = inputs.poll();
+				processed++;
+				oldest = Math.min(oldest, input.submitted);
+				try {
+					input.action.accept(game);
+				}
+				catch (RuntimeException e) {
+					runner.failed(game, e);
+				}
+			}
+			try {
+				if (game.getEvents().isDeferred()) {
+					game.getEvents().drain();
+				}
+				if (afterTurn != null) {
+					afterTurn.accept(game);
+				}
+			}
+			catch (RuntimeException e) {
+				runner.failed(game, e);
+			}
+			if (count > 0) {
+				recordTurn(System.nanoTime() - oldest);
+			}
+		}
+		finally {
+			pending.addAndGet(-processed);
+			scheduled.set(false);
+			if (pending.get() > 0 && scheduled.compareAndSet(false, true)) {
+				schedule();
+			}
+		}
+	}
+
+	private void recordTurn(long latency) {
+		// only written by the worker that currently runs the game
+		turns++;
+		totalLatency += latency;
+		lastLatency = latency;
+		if (latency > maxLatency) {
+			maxLatency = latency;
+		}
+	}
+
+	void close() {
+		closed = true;
+	}
+
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * @return The number of inputs waiting to be processed
+	 */
+	public int getPendingInputs() {
+		return pending.get();
+	}
+
+	/**
+	 * @return The number of turns that have been processed
+	 */
+	public long getTurns() {
+		return turns;
+	}
+
+	public long getLastLatency(TimeUnit unit) {
+		return unit.convert(lastLatency, TimeUnit.NANOSECONDS);
+	}
+
+	public long getMaxLatency(TimeUnit unit) {
+		return unit.convert(maxLatency, TimeUnit.NANOSECONDS);
+	}
+
+	public long getAverageLatency(TimeUnit unit) {
+		long count = turns;
+		return count == 0 ? 0 : unit.convert(totalLatency / count, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "RunningGame [game=" + game + ", turns=" + turns + ", pending=" + pending.get() + "]";
+	}
+
+}
@@ -0,0 +1,45 @@
+package net.zomis.lachesis.tracing;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GameState;
+import net.zomis.lachesis.events.EventHandler;
+import net.zomis.lachesis.events.IEvent;
+
+/**
+ * Receives what a game does as it happens, for tools such as JDK Flight Recorder.
+ * <p>
+ * Methods that start something return a token that is passed back to the method that finishes it,
+ * so that a tracer which is not currently recording can return null and keep nothing.
+ * Tracers of games in concurrent mode are called from several threads.
+ *
+ * @author Simon Forsberg
+ */
+public interface Tracer {
+
+	/**
+	 * Called before the pre-handlers of an event, or before the handlers of a single pre- or post-event
+	 * 
+	 * @return A token to pass to {@link #eventFinished(Object, IEvent, boolean)}, may be null
+	 */
+	Object eventStarted(IEvent event);
+
+	void eventFinished(Object token, IEvent event, boolean cancelled);
+
+	/**
+	 * @return A token to pass to {@link #handlerFinished(Object, EventHandler, IEvent)}, may be null
+	 */
+	Object handlerStarted(EventHandler<?> handler, IEvent event);
+
+	void handlerFinished(Object token, EventHandler<?> handler, IEvent event);
+
+	default void entityCreated(Entity entity) {
+	}
+
+	default void entityDestroyed(Entity entity) {
+	}
+
+	default void stateChanged(Game game, GameState previous, GameState state) {
+	}
+
+}
@@ -0,0 +1,119 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ColumnStorageTest {
+
+	public static class Health extends Component {
+		final int value;
+
+		Health(int value) {
+			this.value = value;
+		}
+	}
+
+	public static class Name extends Component {
+	}
+
+	@Test
+	public void columnKeepsComponentsWhenRemovingFromTheMiddle() {
+		Game game = new Game();
+		ComponentColumn column = new ComponentColumn();
+		Entity[] entities = new Entity[10];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = new Entity(game, i + 1);
+			column.put(entities[i], new Health(i));
+		}
+		assertEquals(3, ((Health) column.remove(entities[3])).value);
+		assertEquals(0, ((Health) column.remove(entities[0])).value);
+		assertNull(column.remove(entities[0]));
+
+		for (int i = 0; i < entities.length; i++) {
+			Health health = (Health) column.get(entities[i]);
+			if (i == 0 || i == 3) {
+				assertNull(health);
+			}
+			else {
+				assertEquals(i, health.value);
+			}
+		}
+		Map<Entity, Integer> visited = new HashMap<>();
+		column.forEach((entity, component) -> visited.put(entity, ((Health) component).value));
+		assertEquals(8, visited.size());
+		assertEquals(Integer.valueOf(9), visited.get(entities[9]));
+	}
+
+	@Test
+	public void columnComparesEntitiesByIdentity() {
+		Game game = new Game();
+		ComponentColumn column = new ComponentColumn();
+		Entity entity = new Entity(game, 1);
+		Entity sameId = new Entity(game, 1);
+		Health health = new Health(5);
+		column.put(entity, health);
+
+		assertNull(column.get(sameId));
+		assertNull(column.remove(sameId));
+		assertSame(health, column.get(entity));
+		try {
+			column.put(sameId, new Health(6));
+			fail("Put a component for an entity with the id of another entity");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+		assertSame(health, column.get(entity));
+	}
+
+	@Test
+	public void columnGameStoresAndIteratesComponents() {
+		Game game = new Game(StorageMode.COLUMN);
+		Entity[] entities = new Entity[20];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = game.newEntity().addComponent(new Health(i));
+			if (i % 2 == 0) {
+				entities[i].addComponent(new Name());
+			}
+		}
+		Health replaced = new Health(100);
+		entities[4].addComponent(replaced);
+		entities[5].removeComponent(Health.class);
+		entities[6].destroy();
+
+		assertSame(replaced, entities[4].getComponent(Health.class));
+		assertFalse(entities[5].hasComponent(Health.class));
+		assertEquals(9, game.getEntitiesWithComponent(Name.class).size());
+		Map<Entity, Integer> visited = new HashMap<>();
+		game.forEachComponent(Health.class, (entity, health) -> {
+			assertSame(health, entity.getComponent(Health.class));
+			visited.put(entity, health.value);
+		});
+		assertEquals(18, visited.size());
+		assertEquals(Integer.valueOf(100), visited.get(entities[4]));
+		assertEquals(Integer.valueOf(19), visited.get(entities[19]));
+	}
+
+	@Test
+	public void recycledIdsDoNotReachComponentsOfDestroyedEntities() {
+		Game game = new Game(StorageMode.COLUMN);
+		Entity destroyed = game.newEntity().addComponent(new Health(1)).addComponent(new Name());
+		destroyed.destroy();
+		Entity created = game.newEntity().addComponent(new Health(2));
+
+		assertEquals(destroyed.getId(), created.getId());
+		assertEquals(2, created.getComponent(Health.class).value);
+		assertFalse(created.hasComponent(Name.class));
+		assertEquals(1, game.getEntitiesWithComponent(Health.class).size());
+		assertEquals(0, game.getEntitiesWithComponent(Name.class).size());
+	}
+
+}
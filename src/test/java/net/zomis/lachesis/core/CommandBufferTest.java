@@ -0,0 +1,50 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CommandBufferTest {
+
+	public static class Marker extends Component {
+	}
+
+	@Test
+	public void changesToDestroyedEntitiesAreSkipped() {
+		Game game = new Game();
+		Entity entity = game.newEntity();
+		CommandBuffer commands = new CommandBuffer();
+		commands.destroy(entity);
+		commands.addComponent(entity, new Marker());
+		commands.destroy(entity);
+
+		commands.apply(game);
+
+		assertTrue(entity.isRemoved());
+		assertEquals(0, game.getFamily(Marker.class).size());
+		assertEquals(0, commands.size());
+	}
+
+	@Test
+	public void changesToReusedEntitiesAreSkipped() {
+		Game game = new Game();
+		game.setPooling(true);
+		Entity entity = game.newEntity();
+		CommandBuffer commands = new CommandBuffer();
+		commands.destroy(entity);
+		commands.newEntity();
+		commands.addComponent(entity, new Marker());
+		commands.destroy(entity);
+
+		commands.apply(game);
+
+		Entity reused = game.getEntity(entity.getId());
+		assertSame(entity, reused);
+		assertFalse(reused.isRemoved());
+		assertFalse(reused.hasComponent(Marker.class));
+	}
+
+}
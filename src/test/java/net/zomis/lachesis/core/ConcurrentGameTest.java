@@ -0,0 +1,136 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.events.IEvent;
+
+public class ConcurrentGameTest {
+
+	private static final int THREADS = 4;
+	private static final int ENTITIES = 5000;
+
+	public static class Position extends Component {
+	}
+
+	public static class Velocity extends Component {
+	}
+
+	public static class TickEvent implements IEvent {
+	}
+
+	private static void runOnThreads(Runnable... tasks) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(tasks.length);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (Runnable task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void structuralChangesFromSeveralThreads() throws Exception {
+		Game game = new Game(StorageMode.ENTITY, true);
+		EntityFamily moving = game.getFamily(Position.class, Velocity.class);
+		Set<Integer> ids = new HashSet<>();
+		Runnable task = () -> {
+			List<Integer> created = new ArrayList<>();
+			for (int i = 0; i < ENTITIES; i++) {
+				Entity entity = game.newEntity().addComponent(new Position());
+				created.add(entity.getId());
+				if (i % 2 == 0) {
+					entity.addComponent(new Velocity());
+				}
+				if (i % 5 == 0) {
+					entity.destroy();
+				}
+			}
+			synchronized (ids) {
+				ids.addAll(created);
+			}
+		};
+		Runnable[] tasks = new Runnable[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			tasks[i] = task;
+		}
+		runOnThreads(tasks);
+
+		int kept = 0;
+		int keptMoving = 0;
+		for (int i = 0; i < ENTITIES; i++) {
+			if (i % 5 != 0) {
+				kept++;
+				keptMoving += i % 2 == 0 ? 1 : 0;
+			}
+		}
+		assertEquals(THREADS * kept, game.getEntitiesWithComponent(Position.class).size());
+		assertEquals(THREADS * keptMoving, moving.size());
+		assertEquals(THREADS * keptMoving, game.getFamily(Velocity.class).size());
+		assertEquals(THREADS * kept, game.getEntityTable().size());
+	}
+
+	@Test
+	public void eventsFromSeveralThreadsWhileRegisteringHandlers() throws Exception {
+		Game game = new Game(StorageMode.ENTITY, true);
+		AtomicInteger first = new AtomicInteger();
+		AtomicInteger later = new AtomicInteger();
+		game.getEvents().registerHandlerAfter(this, TickEvent.class, event -> first.incrementAndGet());
+		Runnable execute = () -> {
+			for (int i = 0; i < ENTITIES; i++) {
+				game.executeEvent(new TickEvent(), () -> {});
+			}
+		};
+		Runnable register = () -> {
+			for (int i = 0; i < 100; i++) {
+				game.getEvents().registerHandlerBefore(i, TickEvent.class, event -> later.incrementAndGet());
+			}
+		};
+		runOnThreads(execute, execute, execute, register);
+
+		assertEquals(3 * ENTITIES, first.get());
+		later.set(0);
+		game.executeEvent(new TickEvent(), () -> {});
+		assertEquals(100, later.get());
+	}
+
+	@Test
+	public void randomFromSeveralThreadsGivesTheSameNumbers() throws Exception {
+		Game sequential = new Game();
+		sequential.getRandom().setSeed(5);
+		long sum = 0;
+		for (int i = 0; i < THREADS * ENTITIES; i++) {
+			sum += sequential.getRandom().nextInt(1000);
+		}
+
+		Game game = new Game(StorageMode.ENTITY, true);
+		game.getRandom().setSeed(5);
+		AtomicInteger concurrentSum = new AtomicInteger();
+		Runnable task = () -> {
+			for (int i = 0; i < ENTITIES; i++) {
+				concurrentSum.addAndGet(game.getRandom().nextInt(1000));
+			}
+		};
+		runOnThreads(task, task, task, task);
+
+		assertEquals(sum, concurrentSum.get());
+		assertEquals(sequential.getRandom().nextLong(), game.getRandom().nextLong());
+	}
+
+}
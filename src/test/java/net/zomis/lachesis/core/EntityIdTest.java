@@ -0,0 +1,74 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class EntityIdTest {
+
+	public static class Marker extends Component {
+	}
+
+	@Test
+	public void idOfDestroyedEntityIsReusedWithNextGeneration() {
+		Game game = new Game();
+		game.newEntity();
+		Entity destroyed = game.newEntity();
+		game.newEntity();
+
+		destroyed.destroy();
+		Entity created = game.newEntity();
+
+		assertEquals(destroyed.getId(), created.getId());
+		assertEquals(destroyed.getGeneration() + 1, created.getGeneration());
+		assertEquals(4, game.newEntity().getId());
+	}
+
+	@Test
+	public void staleHandleDoesNotFindNewEntity() {
+		Game game = new Game();
+		Entity destroyed = game.newEntity().addComponent(new Marker());
+		long handle = destroyed.getHandle();
+		destroyed.destroy();
+		Entity created = game.newEntity();
+
+		assertNull(game.getEntityByHandle(handle));
+		assertSame(created, game.getEntityByHandle(created.getHandle()));
+		assertNotEquals(handle, created.getHandle());
+	}
+
+	@Test
+	public void reusedIdDoesNotInheritComponentsOrFamilies() {
+		for (StorageMode mode : StorageMode.values()) {
+			Game game = new Game(mode);
+			EntityFamily markers = game.getFamily(Marker.class);
+			Entity destroyed = game.newEntity().addComponent(new Marker());
+			destroyed.destroy();
+			Entity created = game.newEntity();
+
+			assertFalse(mode.toString(), created.hasComponent(Marker.class));
+			assertFalse(mode.toString(), destroyed.hasComponent(Marker.class));
+			assertEquals(mode.toString(), 0, markers.size());
+			assertFalse(mode.toString(), markers.contains(destroyed));
+		}
+	}
+
+	@Test
+	public void forkKeepsIdsAndGenerations() {
+		Game game = new Game();
+		game.newEntity().destroy();
+		game.newEntity();
+		game.newEntity().destroy();
+		Game fork = game.fork();
+
+		Entity created = game.newEntity();
+		Entity forked = fork.newEntity();
+		assertEquals(created.getId(), forked.getId());
+		assertEquals(created.getGeneration(), forked.getGeneration());
+	}
+
+}
@@ -0,0 +1,159 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.retrievers.Family;
+import net.zomis.lachesis.retrievers.Retrievers;
+
+public class FamilyTest {
+
+	public static class Position extends Component {
+	}
+
+	public static class Velocity extends Component {
+	}
+
+	public static class Frozen extends Component {
+	}
+
+	public static class MovementSystem implements GameSystem {
+		@Family(value = { Position.class, Velocity.class }, exclude = Frozen.class)
+		EntityFamily moving;
+
+		@Override
+		public void startGame(Game game) {
+		}
+	}
+
+	private static Set<Entity> members(EntityFamily family) {
+		Set<Entity> result = new HashSet<>();
+		for (int i = 0; i < family.size(); i++) {
+			result.add(family.get(i));
+		}
+		Set<Entity> iterated = new HashSet<>();
+		family.forEach(iterated::add);
+		assertEquals(result, iterated);
+		return result;
+	}
+
+	private static EntityFamily moving(Game game) {
+		return game.getFamily(Arrays.asList(Position.class, Velocity.class), Collections.singletonList(Frozen.class));
+	}
+
+	@Test
+	public void familiesFollowComponentChanges() {
+		for (StorageMode mode : StorageMode.values()) {
+			Game game = new Game(mode);
+			EntityFamily moving = moving(game);
+			Entity entity = game.newEntity().addComponent(new Position());
+			assertTrue(mode.name(), moving.isEmpty());
+
+			entity.addComponent(new Velocity());
+			assertEquals(mode.name(), Collections.singleton(entity), members(moving));
+			assertTrue(moving.contains(entity));
+
+			entity.addComponent(new Frozen());
+			assertFalse(mode.name(), moving.contains(entity));
+			entity.removeComponent(Frozen.class);
+			assertTrue(mode.name(), moving.contains(entity));
+			entity.removeComponent(Position.class);
+			assertTrue(mode.name(), moving.isEmpty());
+		}
+	}
+
+	@Test
+	public void familiesCreatedLaterContainExistingEntities() {
+		for (StorageMode mode : StorageMode.values()) {
+			Game game = new Game(mode);
+			Set<Entity> expected = new HashSet<>();
+			for (int i = 0; i < 20; i++) {
+				Entity entity = game.newEntity().addComponent(new Position());
+				if (i % 2 == 0) {
+					entity.addComponent(new Velocity());
+					if (i % 4 == 0) {
+						entity.addComponent(new Frozen());
+					}
+					else {
+						expected.add(entity);
+					}
+				}
+			}
+			assertEquals(mode.name(), expected, members(moving(game)));
+			assertEquals(mode.name(), 20, game.getFamily(Position.class).size());
+		}
+	}
+
+	@Test
+	public void destroyedEntitiesLeaveFamilies() {
+		Game game = new Game();
+		EntityFamily positions = game.getFamily(Position.class);
+		Entity[] entities = new Entity[10];
+		for (int i = 0; i < entities.length; i++) {
+			entities[i] = game.newEntity().addComponent(new Position());
+		}
+		int modifications = positions.getModifications();
+		entities[3].destroy();
+		entities[0].destroy();
+		entities[9].destroy();
+
+		assertNotEquals(modifications, positions.getModifications());
+		Set<Entity> expected = new HashSet<>(Arrays.asList(entities));
+		expected.removeAll(Arrays.asList(entities[0], entities[3], entities[9]));
+		assertEquals(expected, members(positions));
+
+		for (int i = positions.size() - 1; i >= 0; i--) {
+			positions.get(i).destroy();
+		}
+		assertTrue(positions.isEmpty());
+	}
+
+	@Test
+	public void familiesAreShared() {
+		Game game = new Game();
+		assertSame(game.getFamily(Position.class, Velocity.class), game.getFamily(Velocity.class, Position.class));
+		assertSame(moving(game), moving(game));
+	}
+
+	@Test
+	public void familyFieldsAreInjected() {
+		Game game = new Game();
+		MovementSystem system = new MovementSystem();
+		Retrievers.inject(system, game);
+
+		assertSame(moving(game), system.moving);
+		Entity entity = game.newEntity();
+		entity.addComponents(new Position(), new Velocity());
+		assertTrue(system.moving.contains(entity));
+	}
+
+	@Test
+	public void familyMatchesQuery() {
+		Game game = new Game();
+		for (int i = 0; i < 30; i++) {
+			Entity entity = game.newEntity();
+			if (i % 2 == 0) {
+				entity.addComponent(new Position());
+			}
+			if (i % 3 == 0) {
+				entity.addComponent(new Velocity());
+			}
+			if (i % 5 == 0) {
+				entity.addComponent(new Frozen());
+			}
+		}
+		assertEquals(game.getEntitiesWithComponents(Arrays.asList(Position.class, Velocity.class), Collections.singletonList(Frozen.class)),
+			members(moving(game)));
+	}
+
+}
@@ -0,0 +1,92 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ForEachParallelTest {
+
+	private static final int ENTITIES = 10000;
+
+	public static class Value extends Component {
+		final int value;
+
+		Value(int value) {
+			this.value = value;
+		}
+	}
+
+	public static class Created extends Component {
+		final int value;
+
+		Created(int value) {
+			this.value = value;
+		}
+	}
+
+	public static class Marker extends Component {
+	}
+
+	private static Game createGame(ForkJoinPool pool) {
+		Game game = new Game();
+		game.setUpdatePool(pool);
+		for (int i = 0; i < ENTITIES; i++) {
+			game.newEntity().addComponent(new Value(i));
+		}
+		return game;
+	}
+
+	@Test
+	public void commandsAreAppliedInEntityOrder() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Game game = createGame(pool);
+			game.forEachParallel(game.getFamily(Value.class), (entity, commands) -> {
+				int value = entity.getComponent(Value.class).value;
+				if (value % 3 == 0) {
+					commands.newEntity(new Created(value));
+				}
+			});
+
+			int created = (ENTITIES + 2) / 3;
+			assertEquals(created, game.getFamily(Created.class).size());
+			for (int i = 0; i < created; i++) {
+				assertEquals(i * 3, game.getEntity(ENTITIES + 1 + i).getComponent(Created.class).value);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void commandsForDestroyedEntitiesAreSkipped() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Game game = createGame(pool);
+			game.forEachParallel(game.getFamily(Value.class), (entity, commands) -> {
+				int value = entity.getComponent(Value.class).value;
+				if (value % 2 == 0) {
+					Entity next = entity.getGame().getEntity(entity.getId() + 1);
+					if (next != null) {
+						commands.destroy(next);
+					}
+				}
+				commands.addComponent(entity, new Marker());
+			});
+
+			assertEquals(ENTITIES / 2, game.getFamily(Value.class).size());
+			assertEquals(ENTITIES / 2, game.getFamily(Marker.class).size());
+			game.getFamily(Marker.class).forEach(entity -> assertFalse(entity.isRemoved()));
+			assertNull(game.getEntity(2));
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+}
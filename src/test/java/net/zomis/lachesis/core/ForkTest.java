@@ -0,0 +1,186 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.events.IEvent;
+import net.zomis.lachesis.events.Subscribe;
+import net.zomis.lachesis.players.PlayerComponent;
+import net.zomis.lachesis.players.Players;
+import net.zomis.lachesis.retrievers.Family;
+
+public class ForkTest {
+
+	public static class Counter extends Component implements CopyableComponent {
+		int value;
+
+		Counter(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public Counter copy(Entity entity) {
+			return new Counter(value);
+		}
+	}
+
+	public static class Marker extends Component {
+	}
+
+	public static class CountEvent implements IEvent {
+	}
+
+	public static class UninjectableSystem implements GameSystem {
+		@Family(Counter.class)
+		EntityFamily counters;
+
+		@Override
+		public void startGame(Game game) {
+		}
+	}
+
+	public static class CountingSystem implements CopyableSystem {
+		@Family(Counter.class)
+		EntityFamily counters;
+		int seen;
+
+		@Override
+		public void startGame(Game game) {
+		}
+
+		@Subscribe
+		public void count(CountEvent event) {
+			seen = counters.size();
+		}
+
+		@Override
+		public GameSystem copy(Game fork) {
+			CountingSystem copy = new CountingSystem();
+			copy.seen = seen;
+			return copy;
+		}
+	}
+
+	@Test
+	public void forkHasSameEntitiesAndRandom() {
+		Game game = new Game();
+		game.getRandom().setSeed(42);
+		Entity entity = game.newEntity().addComponent(new Counter(3));
+		Game fork = game.fork();
+
+		Entity copy = fork.getEntity(entity.getId());
+		assertEquals(3, copy.getComponent(Counter.class).value);
+		assertEquals(game.getRandom().nextLong(), fork.getRandom().nextLong());
+		assertEquals(game.newEntity().getId(), fork.newEntity().getId());
+	}
+
+	@Test
+	public void copyableComponentIsCopiedWhenRetrievedByFork() {
+		Game game = new Game();
+		Entity entity = game.newEntity().addComponent(new Counter(1));
+		Counter original = entity.getComponent(Counter.class);
+		Game fork = game.fork();
+
+		Counter forked = fork.getEntity(entity.getId()).getComponent(Counter.class);
+		forked.value = 2;
+
+		assertNotSame(original, forked);
+		assertEquals(1, entity.getComponent(Counter.class).value);
+		assertEquals(2, fork.getEntity(entity.getId()).getComponent(Counter.class).value);
+	}
+
+	@Test
+	public void copyableComponentIsCopiedWhenRetrievedByOriginal() {
+		Game game = new Game();
+		Entity entity = game.newEntity().addComponent(new Counter(1));
+		Game fork = game.fork();
+
+		entity.getComponent(Counter.class).value = 5;
+
+		assertEquals(1, fork.getEntity(entity.getId()).getComponent(Counter.class).value);
+	}
+
+	@Test
+	public void lastHolderKeepsTheOriginalComponent() {
+		Game game = new Game();
+		Entity entity = game.newEntity().addComponent(new Counter(1));
+		Counter original = entity.getComponent(Counter.class);
+		Game fork = game.fork();
+
+		fork.getEntity(entity.getId()).getComponent(Counter.class);
+
+		assertSame(original, entity.getComponent(Counter.class));
+	}
+
+	@Test
+	public void structuralChangesAreIsolated() {
+		Game game = new Game();
+		Entity first = game.newEntity().addComponent(new Counter(1));
+		Entity second = game.newEntity().addComponent(new Counter(2)).addComponent(new Marker());
+		Game fork = game.fork();
+
+		fork.getEntity(first.getId()).destroy();
+		fork.getEntity(second.getId()).removeComponent(Marker.class);
+		fork.newEntity().addComponent(new Counter(3));
+
+		assertFalse(first.isRemoved());
+		assertTrue(second.hasComponent(Marker.class));
+		assertEquals(2, game.getFamily(Counter.class).size());
+		assertEquals(2, fork.getFamily(Counter.class).size());
+		assertEquals(0, fork.getFamily(Marker.class).size());
+	}
+
+	@Test
+	public void playersAreCopiedOnWriteInForks() {
+		Game game = new Game();
+		Entity first = game.newEntity().addComponent(new PlayerComponent(0, "First"));
+		game.newEntity().addComponent(new PlayerComponent(1, "Second"));
+		Game fork = game.fork();
+
+		Players.loseGame(fork.getEntity(first.getId()));
+
+		assertFalse(first.getComponent(PlayerComponent.class).isEliminated());
+		assertTrue(fork.getEntity(first.getId()).getComponent(PlayerComponent.class).isEliminated());
+	}
+
+	@Test
+	public void copyingAnEntityDoesNotCopyItsPlayer() {
+		Game game = new Game();
+		Entity player = game.newEntity().addComponent(new PlayerComponent(0, "Player")).addComponent(new Counter(1));
+
+		Entity copy = player.copy();
+
+		assertFalse(copy.hasComponent(PlayerComponent.class));
+		assertEquals(1, copy.getComponent(Counter.class).value);
+		assertEquals(1, game.getFamily(PlayerComponent.class).size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void systemWithInjectedStateMustBeCopyable() {
+		Game game = new Game();
+		game.addSystem(new UninjectableSystem());
+		game.fork();
+	}
+
+	@Test
+	public void copyableSystemIsInjectedWithTheFork() {
+		Game game = new Game();
+		CountingSystem system = new CountingSystem();
+		game.addSystem(system);
+		game.newEntity().addComponent(new Counter(1));
+		Game fork = game.fork();
+		fork.newEntity().addComponent(new Counter(2));
+
+		fork.getEvents().executeEvent(new CountEvent(), () -> {});
+		assertEquals(0, system.seen);
+
+		game.getEvents().executeEvent(new CountEvent(), () -> {});
+		assertEquals(1, system.seen);
+	}
+
+}
@@ -0,0 +1,214 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.zomis.lachesis.io.BinaryInput;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.io.ComponentCodec;
+import net.zomis.lachesis.players.PlayerComponent;
+import net.zomis.lachesis.players.PlayerComponentCodec;
+import net.zomis.lachesis.players.Players;
+
+public class GameCodecTest {
+
+	public static class Position extends Component {
+		int x;
+		int y;
+
+		Position(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	public static class Unregistered extends Component {
+	}
+
+	private static class PositionCodec implements ComponentCodec<Position> {
+		@Override
+		public void write(Position component, BinaryOutput out) {
+			out.writeSignedVarInt(component.x);
+			out.writeSignedVarInt(component.y);
+		}
+
+		@Override
+		public Position read(BinaryInput in, Entity entity) {
+			return new Position(in.readSignedVarInt(), in.readSignedVarInt());
+		}
+	}
+
+	private GameCodec codec;
+
+	@Before
+	public void setup() {
+		codec = new GameCodec()
+			.register(1, Position.class, new PositionCodec())
+			.register(2, PlayerComponent.class, new PlayerComponentCodec());
+	}
+
+	private Game roundTrip(Game game) {
+		BinaryOutput out = new BinaryOutput();
+		codec.write(game, out);
+		Game restored = new Game();
+		codec.read(new BinaryInput(out.toByteBuffer()), restored);
+		return restored;
+	}
+
+	private Game createGame() {
+		Game game = new Game();
+		game.getRandom().setSeed(7);
+		for (int i = 0; i < 3; i++) {
+			game.newEntity().addComponent(new PlayerComponent(i, "Player " + i));
+		}
+		game.newEntity().addComponent(new Position(-3, 4));
+		game.newEntity().addComponent(new Position(5, -6));
+		game.startGame();
+		Players.loseGame(game.getEntity(1));
+		game.getRandom().nextInt();
+		return game;
+	}
+
+	@Test
+	public void roundTripRestoresComponents() {
+		Game game = createGame();
+		Game restored = roundTrip(game);
+
+		assertEquals(5, restored.getEntitiesWithComponent(Position.class).size() + restored.getEntitiesWithComponent(PlayerComponent.class).size());
+		Position position = restored.getEntity(5).getComponent(Position.class);
+		assertEquals(5, position.x);
+		assertEquals(-6, position.y);
+		PlayerComponent player = restored.getEntity(1).getComponent(PlayerComponent.class);
+		PlayerComponent original = game.getEntity(1).getComponent(PlayerComponent.class);
+		assertEquals(original.getName(), player.getName());
+		assertEquals(original.getResultPosition(), player.getResultPosition());
+		assertEquals(original.getWinnerDeclaration(), player.getWinnerDeclaration());
+		assertEquals(3, restored.getFamily(PlayerComponent.class).size());
+	}
+
+	@Test
+	public void roundTripRestoresStateRandomAndIds() {
+		Game game = createGame();
+		game.getEntity(2).destroy();
+		Game restored = roundTrip(game);
+
+		assertEquals(game.getGameState(), restored.getGameState());
+		assertEquals(game.getRandom().nextLong(), restored.getRandom().nextLong());
+		assertNull(restored.getEntity(2));
+		Entity created = game.newEntity();
+		Entity restoredCreated = restored.newEntity();
+		assertEquals(created.getId(), restoredCreated.getId());
+		assertEquals(created.getGeneration(), restoredCreated.getGeneration());
+	}
+
+	@Test
+	public void readReplacesExistingEntities() {
+		Game game = createGame();
+		BinaryOutput out = new BinaryOutput();
+		codec.write(game, out);
+		Game target = new Game();
+		Entity stale = target.newEntity().addComponent(new Position(0, 0));
+
+		codec.read(new BinaryInput(out.toByteBuffer()), target);
+
+		assertTrue(stale.isRemoved());
+		assertEquals(2, target.getEntitiesWithComponent(Position.class).size());
+	}
+
+	@Test
+	public void saveAndLoad() throws IOException {
+		Game game = createGame();
+		Path file = Files.createTempFile("lachesis", ".bin");
+		try {
+			codec.save(game, file);
+			Game restored = new Game();
+			codec.load(file, restored);
+			assertEquals(-3, restored.getEntity(4).getComponent(Position.class).x);
+			assertFalse(restored.getEntity(4).isRemoved());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void writeRequiresCodecsForAllComponents() {
+		Game game = new Game();
+		game.newEntity().addComponent(new Unregistered());
+		codec.write(game, new BinaryOutput());
+	}
+
+	@Test
+	public void readRejectsTruncatedData() {
+		BinaryOutput out = new BinaryOutput();
+		codec.write(createGame(), out);
+		ByteBuffer bytes = out.toByteBuffer();
+		for (int length = 0; length < bytes.limit(); length++) {
+			ByteBuffer truncated = bytes.duplicate();
+			truncated.limit(length);
+			try {
+				codec.read(new BinaryInput(truncated), new Game());
+				fail("Read a saved game truncated to " + length + " bytes");
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void readRequiresCodecsForAllSchemaIds() {
+		BinaryOutput out = new BinaryOutput();
+		codec.write(createGame(), out);
+		GameCodec players = new GameCodec().register(2, PlayerComponent.class, new PlayerComponentCodec());
+		players.read(new BinaryInput(out.toByteBuffer()), new Game());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void schemaIdsMustBeUnique() {
+		codec.register(1, Unregistered.class, new ComponentCodec<Unregistered>() {
+			@Override
+			public void write(Unregistered component, BinaryOutput out) {
+			}
+
+			@Override
+			public Unregistered read(BinaryInput in, Entity entity) {
+				return new Unregistered();
+			}
+		});
+	}
+
+	@Test
+	public void roundTripKeepsBoundaryValues() {
+		int[] values = { 0, 1, -1, 63, -64, 64, 127, 128, 8191, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		Game game = new Game();
+		for (int value : values) {
+			game.newEntity().addComponent(new Position(value, -value));
+		}
+		Game restored = roundTrip(game);
+		for (int i = 0; i < values.length; i++) {
+			Position position = restored.getEntity(i + 1).getComponent(Position.class);
+			assertEquals(values[i], position.x);
+			assertEquals(-values[i], position.y);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void readRejectsOtherData() {
+		BinaryOutput out = new BinaryOutput();
+		out.writeInt(42);
+		codec.read(new BinaryInput(out.toByteBuffer()), new Game());
+	}
+
+}
@@ -0,0 +1,107 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class JournalTest {
+
+	public static class Position extends Component {
+		int x;
+
+		Position(int x) {
+			this.x = x;
+		}
+	}
+
+	public static class Marker extends Component {
+	}
+
+	@Test
+	public void rollbackRestoresEntitiesAndComponents() {
+		for (StorageMode mode : StorageMode.values()) {
+			Game game = new Game(mode);
+			Entity kept = game.newEntity().addComponent(new Position(1));
+			Entity destroyed = game.newEntity().addComponent(new Position(2)).addComponent(new Marker());
+			Position position = kept.getComponent(Position.class);
+			game.setJournaling(true);
+			int mark = game.mark();
+
+			destroyed.destroy();
+			kept.removeComponent(Position.class);
+			kept.addComponent(new Marker());
+			Entity created = game.newEntity().addComponent(new Position(3));
+			game.rollback(mark);
+
+			assertFalse(mode.toString(), destroyed.isRemoved());
+			assertTrue(mode.toString(), destroyed.hasComponent(Marker.class));
+			assertSame(mode.toString(), position, kept.getComponent(Position.class));
+			assertFalse(mode.toString(), kept.hasComponent(Marker.class));
+			assertTrue(mode.toString(), created.isRemoved());
+			assertSame(mode.toString(), destroyed, game.getEntity(destroyed.getId()));
+			assertEquals(mode.toString(), 2, game.getFamily(Position.class).size());
+			assertEquals(mode.toString(), 1, game.getFamily(Marker.class).size());
+		}
+	}
+
+	@Test
+	public void rollbackRestoresIdsStateAndRandom() {
+		Game game = new Game();
+		game.newEntity();
+		game.setJournaling(true);
+		int mark = game.mark();
+		long random = game.getRandom().nextLong();
+		int id = game.newEntity().getId();
+
+		game.startGame();
+		game.endGame();
+		game.rollback(mark);
+
+		assertEquals(GameState.NOT_STARTED, game.getGameState());
+		assertEquals(random, game.getRandom().nextLong());
+		assertEquals(id, game.newEntity().getId());
+	}
+
+	@Test
+	public void rollbackRunsRecordedUndos() {
+		Game game = new Game();
+		Position position = game.newEntity().addComponent(new Position(1)).getComponent(Position.class);
+		game.setJournaling(true);
+		int mark = game.mark();
+
+		int previous = position.x;
+		position.x = 5;
+		game.recordUndo(() -> position.x = previous);
+		game.rollback(mark);
+
+		assertEquals(1, position.x);
+	}
+
+	@Test
+	public void rollbackToAnEarlierMark() {
+		Game game = new Game();
+		game.setJournaling(true);
+		int first = game.mark();
+		Entity a = game.newEntity();
+		int second = game.mark();
+		Entity b = game.newEntity();
+
+		game.rollback(second);
+		assertFalse(a.isRemoved());
+		assertTrue(b.isRemoved());
+
+		game.rollback(first);
+		assertTrue(a.isRemoved());
+		assertNull(game.getEntity(a.getId()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void markRequiresJournaling() {
+		new Game().mark();
+	}
+
+}
@@ -0,0 +1,219 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.events.EntityRemoveEvent;
+import net.zomis.lachesis.retrievers.RetrieverSingleton;
+
+public class ResetPoolingTest {
+
+	public static class Position extends Component {
+		int x;
+	}
+
+	private static class Setup implements GameSystem {
+		private final ComponentPool<Position> positions;
+		int starts;
+
+		Setup(ComponentPool<Position> positions) {
+			this.positions = positions;
+		}
+
+		@Override
+		public void startGame(Game game) {
+			starts++;
+			for (int i = 0; i < 5; i++) {
+				Position position = positions.obtain();
+				position.x = game.getRandom().nextInt(100);
+				game.newEntity().addComponent(position);
+			}
+		}
+	}
+
+	public static class Board extends Component {
+	}
+
+	public static class BoardSystem implements GameSystem {
+		@RetrieverSingleton
+		Board board;
+
+		@Override
+		public void startGame(Game game) {
+		}
+	}
+
+	private static List<Integer> positions(Game game) {
+		List<Integer> result = new ArrayList<>();
+		for (Entity entity : game.getFamily(Position.class)) {
+			result.add(entity.getComponent(Position.class).x);
+		}
+		return result;
+	}
+
+	private static ComponentPool<Position> createPool() {
+		return new ComponentPool<>(Position.class, Position::new, position -> position.x = -1, 100);
+	}
+
+	@Test
+	public void resetGamePlaysLikeNewGame() {
+		ComponentPool<Position> pool = createPool();
+		Setup setup = new Setup(pool);
+		GamePool games = new GamePool(() -> {
+			Game game = new Game();
+			game.setPooling(true);
+			game.setComponentPool(pool);
+			game.addSystem(setup);
+			return game;
+		});
+
+		Game game = games.obtain(42);
+		game.startGame();
+		List<Integer> first = positions(game);
+		games.release(game);
+
+		Game again = games.obtain(42);
+		assertSame(game, again);
+		assertEquals(GameState.NOT_STARTED, again.getGameState());
+		assertEquals(0, again.getFamily(Position.class).size());
+		assertEquals(5, pool.size());
+
+		again.startGame();
+		assertEquals(first, positions(again));
+		assertEquals(0, pool.size());
+		assertEquals(1, again.getFamily(Position.class).get(0).getId());
+		assertEquals(2, setup.starts);
+	}
+
+	@Test
+	public void handlesFromBeforeResetDoNotFindNewEntities() {
+		for (boolean pooling : new boolean[] { false, true }) {
+			Game game = new Game();
+			game.setPooling(pooling);
+			Entity before = game.newEntity();
+			long handle = before.getHandle();
+			game.reset(1);
+
+			Entity after = game.newEntity();
+			assertEquals(before.getId(), after.getId());
+			assertNull(game.getEntityByHandle(handle));
+			assertSame(after, game.getEntityByHandle(after.getHandle()));
+		}
+	}
+
+	@Test
+	public void startAfterResetInjectsSingletonsAgain() {
+		Game game = new Game();
+		game.newEntity().addComponent(new Board());
+		BoardSystem system = new BoardSystem();
+		game.addSystem(system);
+		assertNotNull(system.board);
+
+		Board before = system.board;
+		game.reset(1);
+		Board after = new Board();
+		game.newEntity().addComponent(after);
+		game.startGame();
+
+		assertNotSame(before, system.board);
+		assertSame(after, system.board);
+	}
+
+	@Test
+	public void destroyedEntityIsReused() {
+		Game game = new Game();
+		game.setPooling(true);
+		Entity destroyed = game.newEntity();
+		destroyed.destroy();
+
+		Entity created = game.newEntity();
+		assertSame(destroyed, created);
+		assertFalse(created.isRemoved());
+	}
+
+	@Test
+	public void entityIsNotReusedWhileItsEventIsExecuting() {
+		Game game = new Game();
+		game.setPooling(true);
+		Entity[] created = new Entity[1];
+		game.getEvents().registerHandlerAfter(this, EntityRemoveEvent.class, event -> created[0] = game.newEntity());
+		Entity destroyed = game.newEntity();
+		destroyed.destroy();
+
+		assertNotSame(destroyed, created[0]);
+		assertTrue(destroyed.isRemoved());
+	}
+
+	@Test
+	public void deferredDestroyIsReusedOnceDrained() {
+		Game game = new Game();
+		game.setPooling(true);
+		game.getEvents().setDeferred(true);
+		Entity destroyed = game.newEntity();
+		destroyed.destroy();
+
+		assertFalse(destroyed.isRemoved());
+		assertNotSame(destroyed, game.newEntity());
+
+		game.getEvents().drain();
+		assertTrue(destroyed.isRemoved());
+		assertSame(destroyed, game.newEntity());
+	}
+
+	@Test
+	public void removedComponentsAreReturnedToPool() {
+		ComponentPool<Position> pool = createPool();
+		Game game = new Game();
+		game.setComponentPool(pool);
+		Position position = new Position();
+		position.x = 3;
+		game.newEntity().addComponent(position).destroy();
+
+		assertEquals(1, pool.size());
+		assertEquals(-1, position.x);
+	}
+
+	@Test
+	public void componentsAreNotPooledWhileJournaling() {
+		ComponentPool<Position> pool = createPool();
+		Game game = new Game();
+		game.setPooling(true);
+		game.setComponentPool(pool);
+		Entity entity = game.newEntity().addComponent(new Position());
+		game.setJournaling(true);
+		int mark = game.mark();
+		entity.destroy();
+
+		assertEquals(0, pool.size());
+		assertNotSame(entity, game.newEntity());
+		game.rollback(mark);
+		assertTrue(entity.hasComponent(Position.class));
+	}
+
+	@Test
+	public void componentsOfForkedGamesAreNotPooled() {
+		ComponentPool<Position> pool = createPool();
+		Game game = new Game();
+		game.setComponentPool(pool);
+		Position position = new Position();
+		position.x = 3;
+		Entity entity = game.newEntity().addComponent(position);
+		Game fork = game.fork();
+
+		entity.destroy();
+
+		assertEquals(0, pool.size());
+		assertEquals(3, fork.getEntity(entity.getId()).getComponent(Position.class).x);
+	}
+
+}
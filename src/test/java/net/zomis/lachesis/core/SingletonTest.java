@@ -0,0 +1,129 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.retrievers.ComponentRetriever;
+import net.zomis.lachesis.retrievers.Retrievers;
+
+public class SingletonTest {
+
+	public static class Board extends Component {
+	}
+
+	public static class Scores extends Component {
+	}
+
+	private static void assertRejected(Entity entity, Component component) {
+		try {
+			entity.addComponent(component);
+			fail("Added a second " + component.getClass().getSimpleName());
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void singletonIsFound() {
+		Game game = new Game();
+		game.newEntity();
+		Board board = new Board();
+		game.newEntity().addComponent(board);
+
+		assertSame(board, game.getSingleton(Board.class));
+		assertSame(board, Retrievers.singleton(game, Board.class));
+	}
+
+	@Test
+	public void secondSingletonIsRejectedWhenAdded() {
+		Game game = new Game();
+		Board board = new Board();
+		Entity holder = game.newEntity().addComponent(board);
+		game.getSingleton(Board.class);
+		Entity other = game.newEntity();
+
+		assertRejected(other, new Board());
+		assertFalse(other.hasComponent(Board.class));
+		assertSame(board, game.getSingleton(Board.class));
+
+		Board replaced = new Board();
+		holder.addComponent(replaced);
+		assertSame(replaced, game.getSingleton(Board.class));
+	}
+
+	@Test
+	public void singletonCanMoveToAnotherEntity() {
+		Game game = new Game();
+		Entity first = game.newEntity().addComponent(new Board());
+		game.getSingleton(Board.class);
+		first.removeComponent(Board.class);
+		Board moved = new Board();
+		Entity second = game.newEntity().addComponent(moved);
+		assertSame(moved, game.getSingleton(Board.class));
+
+		second.destroy();
+		Board created = new Board();
+		game.newEntity().addComponent(created);
+		assertSame(created, game.getSingleton(Board.class));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void missingSingletonThrows() {
+		Game game = new Game();
+		game.newEntity().addComponent(new Scores());
+		game.getSingleton(Board.class);
+	}
+
+	@Test
+	public void removedSingletonThrows() {
+		Game game = new Game();
+		Entity holder = game.newEntity().addComponent(new Board());
+		game.getSingleton(Board.class);
+		holder.removeComponent(Board.class);
+		try {
+			game.getSingleton(Board.class);
+			fail("Found a removed singleton");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void severalInstancesThrowOnFirstLookup() {
+		Game game = new Game();
+		game.newEntity().addComponent(new Board());
+		game.newEntity().addComponent(new Board());
+		game.getSingleton(Board.class);
+	}
+
+	@Test
+	public void retrieverFollowsTheSingleton() {
+		Game game = new Game();
+		Entity entity = game.newEntity();
+		Entity holder = game.newEntity().addComponent(new Board());
+		ComponentRetriever<Board> retriever = Retrievers.singleton(Board.class);
+		assertSame(holder.getComponent(Board.class), retriever.get(entity));
+
+		holder.destroy();
+		Board created = new Board();
+		game.newEntity().addComponent(created);
+		assertSame(created, retriever.get(entity));
+	}
+
+	@Test
+	public void forksTrackTheSameSingletons() {
+		Game game = new Game();
+		game.newEntity().addComponent(new Board());
+		game.getSingleton(Board.class);
+		Game fork = game.fork();
+
+		assertRejected(fork.newEntity(), new Board());
+		assertSame(fork.getEntity(1).getComponent(Board.class), fork.getSingleton(Board.class));
+	}
+
+}
@@ -0,0 +1,204 @@
+package net.zomis.lachesis.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.metrics.MetricsListener;
+
+public class SystemScheduleTest {
+
+	public static class Position extends Component {
+	}
+
+	public static class Velocity extends Component {
+	}
+
+	public static class Health extends Component {
+	}
+
+	private static class TestSystem implements UpdatableSystem {
+		private final String name;
+		private final Set<Class<? extends Component>> reads;
+		private final Set<Class<? extends Component>> writes;
+		private final List<String> updated;
+		private Runnable action = () -> {};
+
+		TestSystem(String name, List<String> updated, Set<Class<? extends Component>> reads, Set<Class<? extends Component>> writes) {
+			this.name = name;
+			this.updated = updated;
+			this.reads = reads;
+			this.writes = writes;
+		}
+
+		@Override
+		public void startGame(Game game) {
+		}
+
+		@Override
+		public void update(Game game) {
+			action.run();
+			synchronized (updated) {
+				updated.add(name);
+			}
+		}
+
+		@Override
+		public Set<Class<? extends Component>> reads() {
+			return reads;
+		}
+
+		@Override
+		public Set<Class<? extends Component>> writes() {
+			return writes;
+		}
+	}
+
+	@SafeVarargs
+	private static Set<Class<? extends Component>> types(Class<? extends Component>... classes) {
+		return new HashSet<>(Arrays.asList(classes));
+	}
+
+	private final List<String> updated = new ArrayList<>();
+
+	private TestSystem system(String name, Set<Class<? extends Component>> reads, Set<Class<? extends Component>> writes) {
+		return new TestSystem(name, updated, reads, writes);
+	}
+
+	@Test
+	public void conflictingSystemsAreInLaterStages() {
+		List<GameSystem> systems = new ArrayList<>();
+		systems.add(system("move", types(Velocity.class), types(Position.class)));
+		systems.add(system("heal", types(), types(Health.class)));
+		systems.add(system("render", types(Position.class, Health.class), types()));
+		systems.add(system("accelerate", types(), types(Velocity.class)));
+		systems.add(system("count", types(), types()));
+
+		assertEquals(2, SystemSchedule.of(systems).getStageCount());
+	}
+
+	@Test
+	public void undeclaredSystemsAreUpdatedOnTheirOwn() {
+		List<GameSystem> systems = new ArrayList<>();
+		systems.add(system("first", types(), types()));
+		systems.add(system("undeclared", null, null));
+		systems.add(system("second", types(), types()));
+		systems.add(system("reads only", types(Position.class), null));
+
+		assertEquals(4, SystemSchedule.of(systems).getStageCount());
+	}
+
+	@Test
+	public void conflictingSystemsAreUpdatedInOrder() {
+		Game game = new Game();
+		game.addSystem(system("move", types(Velocity.class), types(Position.class)));
+		game.addSystem(system("render", types(Position.class), types()));
+		game.addSystem(system("undeclared", null, null));
+		game.addSystem(system("accelerate", types(), types(Velocity.class)));
+		game.startGame();
+		game.update();
+		game.update();
+
+		assertEquals(Arrays.asList("move", "render", "undeclared", "accelerate", "move", "render", "undeclared", "accelerate"), updated);
+	}
+
+	@Test
+	public void independentSystemsAreUpdatedInParallel() {
+		Game game = new Game();
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			game.setUpdatePool(pool);
+			CyclicBarrier barrier = new CyclicBarrier(2);
+			Runnable await = () -> {
+				try {
+					barrier.await(10, TimeUnit.SECONDS);
+				}
+				catch (Exception e) {
+					throw new IllegalStateException("Systems were not updated in parallel", e);
+				}
+			};
+			TestSystem positions = system("positions", types(), types(Position.class));
+			TestSystem health = system("health", types(), types(Health.class));
+			positions.action = await;
+			health.action = await;
+			game.addSystem(positions);
+			game.addSystem(health);
+			game.startGame();
+			game.update();
+		}
+		finally {
+			pool.shutdown();
+		}
+		assertEquals(new HashSet<>(Arrays.asList("positions", "health")), new HashSet<>(updated));
+	}
+
+	@Test
+	public void addedSystemsAreScheduled() {
+		Game game = new Game();
+		game.addSystem(system("first", types(), types()));
+		game.startGame();
+		game.update();
+		TestSystem second = system("second", null, null);
+		game.addSystem(second);
+		game.update();
+		game.removeSystem(second);
+		game.update();
+
+		assertEquals(Arrays.asList("first", "first", "second", "first"), updated);
+	}
+
+	@Test
+	public void updateTimesAreReported() {
+		Game game = new Game();
+		List<GameSystem> reported = new ArrayList<>();
+		game.setMetrics(new MetricsListener() {
+			@Override
+			public void systemUpdated(GameSystem system, long nanos) {
+				synchronized (reported) {
+					reported.add(system);
+				}
+			}
+		});
+		TestSystem system = system("system", null, null);
+		game.addSystem(system);
+		game.startGame();
+		game.update();
+
+		assertEquals(Collections.singletonList(system), reported);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void updateRequiresARunningGame() {
+		Game game = new Game();
+		game.addSystem(system("system", null, null));
+		game.update();
+	}
+
+	@Test
+	public void forksAreUpdatedOnTheCallingThread() {
+		Game game = new Game();
+		Thread caller = Thread.currentThread();
+		List<Thread> threads = new ArrayList<>();
+		TestSystem first = system("first", types(), types(Position.class));
+		TestSystem second = system("second", types(), types(Health.class));
+		first.action = () -> threads.add(Thread.currentThread());
+		second.action = () -> threads.add(Thread.currentThread());
+		game.addSystem(first);
+		game.addSystem(second);
+		game.startGame();
+		game.fork().update();
+
+		assertEquals(Arrays.asList(caller, caller), threads);
+	}
+
+}
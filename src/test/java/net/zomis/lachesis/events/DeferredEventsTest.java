@@ -0,0 +1,181 @@
+package net.zomis.lachesis.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeferredEventsTest {
+
+	public static class NumberEvent implements IEvent {
+		final int number;
+
+		NumberEvent(int number) {
+			this.number = number;
+		}
+	}
+
+	public static class TextEvent implements CancellableEvent {
+		final String text;
+		private boolean cancelled;
+
+		TextEvent(String text) {
+			this.text = text;
+		}
+
+		@Override
+		public void setCancelled(boolean cancelled) {
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	private final EventExecutor events = new EventExecutor();
+	private final List<String> executed = new ArrayList<>();
+
+	@Before
+	public void setup() {
+		events.setDeferred(true);
+	}
+
+	@Test
+	public void eventsWaitUntilDrained() {
+		events.registerHandlerAfter(this, NumberEvent.class, e -> executed.add("after " + e.number));
+		events.executeEvent(new NumberEvent(1), () -> executed.add("action 1"));
+
+		assertTrue(executed.isEmpty());
+		assertEquals(1, events.getQueuedEvents());
+		assertFalse(events.isIdle());
+		assertEquals(1, events.drain());
+		assertEquals(Arrays.asList("action 1", "after 1"), executed);
+		assertTrue(events.isIdle());
+	}
+
+	@Test
+	public void batchesAreGroupedByEventClass() {
+		events.registerHandlerBefore(this, NumberEvent.class, e -> executed.add("before " + e.number));
+		events.registerHandlerAfter(this, NumberEvent.class, e -> executed.add("after " + e.number));
+		events.registerHandlerBefore(this, TextEvent.class, e -> e.setCancelled(e.text.equals("b")));
+		events.registerHandlerAfter(this, TextEvent.class, e -> executed.add("after " + e.text));
+
+		events.executeEvent(new NumberEvent(1), () -> executed.add("action 1"));
+		events.executeCancellableEvent(new TextEvent("a"), () -> executed.add("action a"));
+		events.executeEvent(new NumberEvent(2), () -> executed.add("action 2"));
+		events.executeCancellableEvent(new TextEvent("b"), () -> executed.add("action b"));
+
+		assertEquals(4, events.drain());
+		assertEquals(Arrays.asList("before 1", "before 2", "action 1", "action 2", "after 1", "after 2",
+			"action a", "after a"), executed);
+	}
+
+	@Test
+	public void eventsQueuedWhileDrainingAreDrained() {
+		events.registerHandlerAfter(this, NumberEvent.class, e -> {
+			executed.add("after " + e.number);
+			if (e.number < 3) {
+				events.executeEvent(new NumberEvent(e.number + 1), () -> {});
+			}
+		});
+		events.executeEvent(new NumberEvent(1), () -> {});
+
+		assertEquals(3, events.drain());
+		assertEquals(Arrays.asList("after 1", "after 2", "after 3"), executed);
+	}
+
+	@Test
+	public void equalKeysAreCoalesced() {
+		events.setCoalescing(NumberEvent.class, e -> e.number);
+		events.registerHandlerAfter(this, NumberEvent.class, e -> executed.add("after " + e.number));
+		for (int i = 0; i < 3; i++) {
+			events.executeEvent(new NumberEvent(1), () -> {});
+			events.executeEvent(new NumberEvent(2), () -> {});
+		}
+		assertEquals(2, events.getQueuedEvents());
+		events.drain();
+		events.executeEvent(new NumberEvent(1), () -> {});
+		events.drain();
+
+		assertEquals(Arrays.asList("after 1", "after 2", "after 1"), executed);
+	}
+
+	@Test
+	public void eventsOfTheFailedBatchAreKept() {
+		events.registerHandlerAfter(this, NumberEvent.class, e -> {
+			if (e.number == 2) {
+				events.executeCancellableEvent(new TextEvent("queued while draining"), () -> {});
+				throw new IllegalStateException("handler failed");
+			}
+		});
+		events.registerHandlerAfter(this, TextEvent.class, e -> executed.add(e.text));
+		events.executeEvent(new NumberEvent(1), () -> {});
+		events.executeCancellableEvent(new TextEvent("a"), () -> {});
+		events.executeEvent(new NumberEvent(2), () -> {});
+		events.executeCancellableEvent(new TextEvent("b"), () -> {});
+
+		try {
+			events.drain();
+			fail("Expected the handler to throw");
+		}
+		catch (IllegalStateException e) {
+			assertEquals("handler failed", e.getMessage());
+		}
+		assertEquals(3, events.getQueuedEvents());
+		assertTrue(executed.isEmpty());
+
+		events.drain();
+		assertEquals(Arrays.asList("a", "b", "queued while draining"), executed);
+		assertTrue(events.isIdle());
+	}
+
+	@Test
+	public void clearQueueDiscardsEvents() {
+		events.setCoalescing(NumberEvent.class, e -> e.number);
+		events.executeEvent(new NumberEvent(1), () -> executed.add("action"));
+		events.clearQueue();
+		events.executeEvent(new NumberEvent(1), () -> executed.add("action"));
+
+		assertEquals(1, events.drain());
+		assertEquals(Arrays.asList("action"), executed);
+	}
+
+	@Test
+	public void queueKeepsOrderWhenGrowingAroundItsEnd() {
+		EventQueue queue = new EventQueue();
+		List<IEvent> expected = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			NumberEvent event = new NumberEvent(i);
+			queue.add(event, () -> {}, false);
+			expected.add(event);
+		}
+		for (int i = 0; i < 20; i++) {
+			NumberEvent event = new NumberEvent(-i);
+			queue.putBack(event, () -> {}, false);
+			expected.add(0, event);
+		}
+		for (int i = 0; i < 20; i++) {
+			NumberEvent event = new NumberEvent(100 + i);
+			queue.add(event, () -> {}, false);
+			expected.add(event);
+		}
+
+		EventQueue.EventBatch batch = new EventQueue.EventBatch();
+		queue.takeAll(batch);
+		assertTrue(queue.isEmpty());
+		assertEquals(expected.size(), batch.size);
+		for (int i = 0; i < batch.size; i++) {
+			assertEquals(expected.get(i), batch.events[i]);
+		}
+	}
+
+}
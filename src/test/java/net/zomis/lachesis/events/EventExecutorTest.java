@@ -0,0 +1,181 @@
+package net.zomis.lachesis.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class EventExecutorTest {
+
+	public static class TestEvent implements IEvent {
+	}
+
+	public static class OtherEvent implements IEvent {
+	}
+
+	public static class SubEvent extends TestEvent implements CancellableEvent {
+		@Override
+		public void setCancelled(boolean cancelled) {
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+	}
+
+	public static class TestCancellableEvent implements CancellableEvent {
+		private boolean cancelled;
+
+		@Override
+		public void setCancelled(boolean cancelled) {
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	private final EventExecutor events = new EventExecutor();
+	private final List<String> executed = new ArrayList<>();
+
+	@SuppressWarnings("unchecked")
+	private static <T extends IEvent> EventHandler<T> handler(EventHandler<IEvent> handler) {
+		return (EventHandler<T>) (EventHandler<?>) handler;
+	}
+
+	@Test
+	public void handlersRunByPriorityThenRegistration() {
+		events.registerHandlerAfter("a", TestEvent.class, e -> executed.add("a"), 5);
+		events.registerHandlerAfter("b", TestEvent.class, e -> executed.add("b"), -5);
+		events.registerHandlerAfter("c", TestEvent.class, e -> executed.add("c"), 5);
+		events.registerHandlerAfter("d", TestEvent.class, e -> executed.add("d"));
+		events.registerHandlerBefore("e", TestEvent.class, e -> executed.add("e"), 10);
+
+		events.executeEvent(new TestEvent(), () -> executed.add("action"));
+
+		assertEquals(Arrays.asList("e", "action", "b", "d", "a", "c"), executed);
+	}
+
+	@Test
+	public void handlerRegisteredAgainKeepsItsPlace() {
+		EventHandler<IEvent> first = new EventHandler<>("first", e -> executed.add("first"), true, 0);
+		EventHandler<IEvent> second = new EventHandler<>("second", e -> executed.add("second"), true, 0);
+		events.registerHandler(TestEvent.class, handler(first));
+		events.registerHandler(TestEvent.class, handler(second));
+		events.registerHandler(OtherEvent.class, handler(second));
+		events.registerHandler(OtherEvent.class, handler(first));
+
+		events.executeEvent(new TestEvent(), () -> {});
+		events.executeEvent(new OtherEvent(), () -> {});
+
+		assertEquals(Arrays.asList("first", "second", "first", "second"), executed);
+	}
+
+	@Test
+	public void cancelledEventSkipsActionAndAfterHandlers() {
+		events.registerHandlerBefore("cancel", TestCancellableEvent.class, e -> e.setCancelled(true));
+		events.registerHandlerBefore("before", TestCancellableEvent.class, e -> executed.add("before"), 1);
+		events.registerHandlerAfter("after", TestCancellableEvent.class, e -> executed.add("after"));
+
+		TestCancellableEvent event = events.executeCancellableEvent(new TestCancellableEvent(), () -> executed.add("action"));
+
+		assertTrue(event.isCancelled());
+		assertEquals(Arrays.asList("before"), executed);
+	}
+
+	@Test
+	public void stopOnCancelSkipsRemainingBeforeHandlers() {
+		events.setStopOnCancel(true);
+		events.registerHandlerBefore("cancel", TestCancellableEvent.class, e -> e.setCancelled(true));
+		events.registerHandlerBefore("before", TestCancellableEvent.class, e -> executed.add("before"), 1);
+
+		events.executeCancellableEvent(new TestCancellableEvent(), () -> executed.add("action"));
+
+		assertTrue(executed.isEmpty());
+	}
+
+	@Test
+	public void uncancelledEventRunsActionWithoutStopOnCancel() {
+		events.registerHandlerBefore("cancel", TestCancellableEvent.class, e -> e.setCancelled(true));
+		events.registerHandlerBefore("uncancel", TestCancellableEvent.class, e -> e.setCancelled(false), 1);
+		events.registerHandlerAfter("after", TestCancellableEvent.class, e -> executed.add("after"));
+
+		TestCancellableEvent event = events.executeCancellableEvent(new TestCancellableEvent(), () -> executed.add("action"));
+
+		assertFalse(event.isCancelled());
+		assertEquals(Arrays.asList("action", "after"), executed);
+	}
+
+	@Test
+	public void handlersForSupertypesReceiveSubtypeEvents() {
+		events.registerHandlerAfter("event", IEvent.class, e -> executed.add("event"), 2);
+		events.registerHandlerAfter("cancellable", CancellableEvent.class, e -> executed.add("cancellable"), 1);
+		events.registerHandlerAfter("test", TestEvent.class, e -> executed.add("test"));
+		events.registerHandlerAfter("sub", SubEvent.class, e -> executed.add("sub"));
+
+		events.executeEvent(new SubEvent(), () -> {});
+		assertEquals(Arrays.asList("test", "sub", "cancellable", "event"), executed);
+
+		executed.clear();
+		events.executeEvent(new TestEvent(), () -> {});
+		events.executeEvent(new OtherEvent(), () -> {});
+		assertEquals(Arrays.asList("test", "event", "event"), executed);
+	}
+
+	@Test
+	public void handlersChangedAfterDispatchAreUsed() {
+		events.executeEvent(new SubEvent(), () -> {});
+		EventHandler<IEvent> handler = events.registerHandlerAfter("event", IEvent.class, e -> executed.add("event"));
+		events.executeEvent(new SubEvent(), () -> {});
+		events.removeHandler(handler);
+		events.executeEvent(new SubEvent(), () -> {});
+		events.registerHandlerBefore("test", TestEvent.class, e -> executed.add("test"));
+		events.executeEvent(new SubEvent(), () -> {});
+		events.removeListenersWithIdentifier("test");
+		events.executeEvent(new SubEvent(), () -> {});
+
+		assertEquals(Arrays.asList("event", "test"), executed);
+	}
+
+	@Test
+	public void handlersChangedWhileDispatchingTakeEffectFromTheNextDispatch() {
+		EventHandler<TestEvent> removed = events.registerHandlerBefore("removed", TestEvent.class, e -> executed.add("removed"), 1);
+		events.registerHandlerBefore("changing", TestEvent.class, e -> {
+			executed.add("changing");
+			if (executed.size() == 1) {
+				events.removeHandler(removed);
+				events.registerHandlerBefore("added", TestEvent.class, e2 -> executed.add("added"), 2);
+			}
+		});
+
+		events.executeEvent(new TestEvent(), () -> {});
+		events.executeEvent(new TestEvent(), () -> {});
+
+		assertEquals(Arrays.asList("changing", "removed", "changing", "added"), executed);
+	}
+
+	@Test
+	public void copiedHandlersKeepTheirOrder() {
+		events.registerHandlerAfter("a", TestEvent.class, e -> executed.add("a"));
+		events.registerHandlerAfter("b", IEvent.class, e -> executed.add("b"));
+		events.registerHandlerBefore("c", TestEvent.class, e -> executed.add("c"), 3);
+		events.setStopOnCancel(true);
+		EventExecutor copy = new EventExecutor();
+		copy.copyHandlers(events);
+		copy.registerHandlerAfter("e", TestEvent.class, e -> executed.add("e"));
+
+		copy.executeEvent(new TestEvent(), () -> executed.add("action"));
+
+		assertEquals(Arrays.asList("c", "action", "a", "b", "e"), executed);
+		assertTrue(copy.isStopOnCancel());
+	}
+
+}
@@ -0,0 +1,181 @@
+package net.zomis.lachesis.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SubscribersTest {
+
+	public static final List<String> received = new ArrayList<>();
+
+	public static class ScoreEvent implements IEvent {
+	}
+
+	public static class PublicSubscriber {
+		@Subscribe
+		public void before(ScoreEvent event) {
+			received.add("before");
+		}
+
+		@Subscribe(after = true, priority = -1)
+		public void afterFirst(ScoreEvent event) {
+			received.add("after first");
+		}
+
+		@Subscribe(after = true)
+		public void after(ScoreEvent event) {
+			received.add("after");
+		}
+
+		public void notSubscribed(ScoreEvent event) {
+			received.add("not subscribed");
+		}
+	}
+
+	public static class SubSubscriber extends PublicSubscriber {
+		@Override
+		@Subscribe
+		public void before(ScoreEvent event) {
+			received.add("overridden before");
+		}
+	}
+
+	private static class PrivateSubscriber {
+		@Subscribe
+		private void handle(ScoreEvent event) {
+			received.add("private");
+		}
+	}
+
+	public static class InvalidSubscriber {
+		@Subscribe
+		public void handle(String notAnEvent) {
+		}
+	}
+
+	public static class ChildEvent implements IEvent {
+	}
+
+	public static class ChildSubscriber {
+		@Subscribe
+		public void handle(ChildEvent event) {
+			received.add("child");
+		}
+	}
+
+	/**
+	 * Defines the child classes and this test class itself, so that they are not visible from the loader of Subscribers
+	 */
+	private static class ChildClassLoader extends ClassLoader {
+		private final List<String> names = Arrays.asList(SubscribersTest.class.getName(),
+			ChildEvent.class.getName(), ChildSubscriber.class.getName());
+
+		ChildClassLoader() {
+			super(SubscribersTest.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!names.contains(name)) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> loaded = findLoadedClass(name);
+				if (loaded == null) {
+					byte[] bytes = readClass(name);
+					loaded = defineClass(name, bytes, 0, bytes.length);
+				}
+				return loaded;
+			}
+		}
+
+		private byte[] readClass(String name) throws ClassNotFoundException {
+			try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+					out.write(buffer, 0, read);
+				}
+				return out.toByteArray();
+			}
+			catch (IOException e) {
+				throw new ClassNotFoundException(name, e);
+			}
+		}
+	}
+
+	private final EventExecutor events = new EventExecutor();
+
+	@Before
+	public void setup() {
+		received.clear();
+	}
+
+	@Test
+	public void subscribedMethodsAreRegistered() {
+		PublicSubscriber subscriber = new PublicSubscriber();
+		List<EventHandler<?>> handlers = events.registerSubscribers(subscriber);
+		events.executeEvent(new ScoreEvent(), () -> received.add("action"));
+
+		assertEquals(3, handlers.size());
+		for (EventHandler<?> handler : handlers) {
+			assertEquals(subscriber, handler.getIdentifier());
+		}
+		assertEquals(Arrays.asList("before", "action", "after first", "after"), received);
+	}
+
+	@Test
+	public void overriddenMethodsAreRegisteredOnce() {
+		events.registerSubscribers(new SubSubscriber());
+		events.executeEvent(new ScoreEvent(), () -> {});
+
+		assertEquals(Arrays.asList("overridden before", "after first", "after"), received);
+	}
+
+	@Test
+	public void privateMethodsAreRegistered() {
+		events.registerSubscribers(new PrivateSubscriber());
+		events.executeEvent(new ScoreEvent(), () -> {});
+
+		assertEquals(Arrays.asList("private"), received);
+	}
+
+	@Test
+	public void subscribersAreRemovedByIdentifier() {
+		PublicSubscriber removed = new PublicSubscriber();
+		events.registerSubscribers(removed);
+		events.registerSubscribers(new PrivateSubscriber());
+		events.removeListenersWithIdentifier(removed);
+		events.executeEvent(new ScoreEvent(), () -> {});
+
+		assertEquals(Arrays.asList("private"), received);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void methodsMustTakeAnEvent() {
+		events.registerSubscribers(new InvalidSubscriber());
+	}
+
+	@Test
+	public void subscribersFromChildClassLoaders() throws Exception {
+		ClassLoader loader = new ChildClassLoader();
+		Class<?> subscriberClass = loader.loadClass(ChildSubscriber.class.getName());
+		Class<?> eventClass = loader.loadClass(ChildEvent.class.getName());
+		assertNotSame(ChildSubscriber.class, subscriberClass);
+
+		events.registerSubscribers(subscriberClass.getConstructor().newInstance());
+		events.executeEvent((IEvent) eventClass.getConstructor().newInstance(), () -> {});
+
+		assertEquals(Arrays.asList("child"), loader.loadClass(SubscribersTest.class.getName()).getDeclaredField("received").get(null));
+	}
+
+}
@@ -0,0 +1,82 @@
+package net.zomis.lachesis.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class BinaryIOTest {
+
+	private static BinaryInput input(BinaryOutput out) {
+		return new BinaryInput(out.toByteBuffer());
+	}
+
+	@Test
+	public void varIntBoundaries() {
+		int[] values = { 0, 1, 127, 128, 16383, 16384, 2097151, 2097152, 268435455, 268435456, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+		int[] sizes = { 1, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 5, 5 };
+		for (int i = 0; i < values.length; i++) {
+			BinaryOutput out = new BinaryOutput();
+			out.writeVarInt(values[i]);
+			assertEquals("Size of " + values[i], sizes[i], out.size());
+			BinaryInput in = input(out);
+			assertEquals(values[i], in.readVarInt());
+			assertFalse(in.hasRemaining());
+		}
+	}
+
+	@Test
+	public void signedVarIntBoundaries() {
+		int[] values = { 0, -1, 1, -64, 63, -65, 64, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		int[] sizes = { 1, 1, 1, 1, 1, 2, 2, 5, 5 };
+		for (int i = 0; i < values.length; i++) {
+			BinaryOutput out = new BinaryOutput();
+			out.writeSignedVarInt(values[i]);
+			assertEquals("Size of " + values[i], sizes[i], out.size());
+			assertEquals(values[i], input(out).readSignedVarInt());
+		}
+	}
+
+	@Test
+	public void varLongBoundaries() {
+		long[] values = { 0, 127, 128, Integer.MAX_VALUE, 1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE };
+		BinaryOutput out = new BinaryOutput();
+		for (long value : values) {
+			out.writeVarLong(value);
+		}
+		BinaryInput in = input(out);
+		for (long value : values) {
+			assertEquals(value, in.readVarLong());
+		}
+		assertFalse(in.hasRemaining());
+	}
+
+	@Test
+	public void stringsAndFixedSizeValues() {
+		BinaryOutput out = new BinaryOutput(1);
+		out.writeString("Lachesis \u00e5\u00e4\u00f6").writeString(null).writeString("")
+			.writeInt(-5).writeLong(Long.MIN_VALUE).writeDouble(0.5).writeBoolean(true).writeByte(-2);
+		BinaryInput in = input(out);
+		assertEquals("Lachesis \u00e5\u00e4\u00f6", in.readString());
+		assertNull(in.readString());
+		assertEquals("", in.readString());
+		assertEquals(-5, in.readInt());
+		assertEquals(Long.MIN_VALUE, in.readLong());
+		assertEquals(0.5, in.readDouble(), 0);
+		assertEquals(true, in.readBoolean());
+		assertEquals(-2, in.readByte());
+		assertFalse(in.hasRemaining());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void malformedVarIntIsRejected() {
+		BinaryOutput out = new BinaryOutput();
+		for (int i = 0; i < 5; i++) {
+			out.writeByte(0x80);
+		}
+		out.writeByte(0);
+		input(out).readVarInt();
+	}
+
+}
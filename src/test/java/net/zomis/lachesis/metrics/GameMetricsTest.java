@@ -0,0 +1,113 @@
+package net.zomis.lachesis.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.UpdatableSystem;
+import net.zomis.lachesis.events.CancellableEvent;
+import net.zomis.lachesis.events.IEvent;
+
+public class GameMetricsTest {
+
+	public static class MoveEvent implements CancellableEvent {
+		private boolean cancelled;
+
+		@Override
+		public void setCancelled(boolean cancelled) {
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	public static class TickEvent implements IEvent {
+	}
+
+	public static class MoveSystem implements UpdatableSystem {
+		private int moves;
+
+		@Override
+		public void startGame(Game game) {
+			game.getEvents().registerHandlerBefore(this, MoveEvent.class, event -> event.setCancelled(++moves % 2 == 0));
+		}
+
+		@Override
+		public void update(Game game) {
+			game.executeCancellableEvent(new MoveEvent(), () -> {});
+		}
+	}
+
+	private static GameMetrics play(GameMetrics metrics) {
+		Game game = new Game();
+		game.setMetrics(metrics);
+		game.addSystem(new MoveSystem());
+		game.getEvents().registerHandlerAfter("ticker", TickEvent.class, event -> {});
+		game.startGame();
+		for (int i = 0; i < 4; i++) {
+			game.update();
+		}
+		game.executeEvent(new TickEvent(), () -> {});
+		return metrics;
+	}
+
+	@Test
+	public void timingsAreCollectedPerEventHandlerAndSystem() {
+		GameMetrics metrics = play(new GameMetrics());
+
+		Timings moves = metrics.getEvents().get(MoveEvent.class);
+		assertEquals(4, moves.getCount());
+		assertEquals(2, moves.getCancellations());
+		assertEquals(1, metrics.getEvents().get(TickEvent.class).getCount());
+		assertEquals(4, metrics.getHandlers().get(MoveSystem.class.getName()).getCount());
+		assertEquals(1, metrics.getHandlers().get("ticker").getCount());
+		assertEquals(1, metrics.getSystemStarts().get(MoveSystem.class).getCount());
+		assertEquals(4, metrics.getSystemUpdates().get(MoveSystem.class).getCount());
+		assertTrue(moves.getMaxNanos() >= moves.getMedianNanos());
+	}
+
+	@Test
+	public void resetKeepsTimings() {
+		GameMetrics metrics = play(new GameMetrics());
+		Timings moves = metrics.getEvents().get(MoveEvent.class);
+		metrics.reset();
+
+		assertEquals(0, moves.getCount());
+		assertEquals(0, moves.getCancellations());
+		play(metrics);
+		assertEquals(4, moves.getCount());
+	}
+
+	@Test
+	public void timingsAreRegisteredAsMBeans() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName move = new ObjectName("net.zomis.lachesis:metrics=\"test\",type=Event,name=" + ObjectName.quote(MoveEvent.class.getName()));
+		ObjectName system = new ObjectName("net.zomis.lachesis:metrics=\"test\",type=SystemUpdate,name=" + ObjectName.quote(MoveSystem.class.getName()));
+		GameMetrics metrics = new GameMetrics();
+		metrics.systemStarted(new MoveSystem(), 5);
+		metrics.registerMBeans("test");
+		try {
+			play(metrics);
+			assertEquals(4L, server.getAttribute(move, "Count"));
+			assertEquals(2L, server.getAttribute(move, "Cancellations"));
+			assertEquals(4L, server.getAttribute(system, "Count"));
+		}
+		finally {
+			metrics.unregisterMBeans();
+		}
+		assertFalse(server.isRegistered(move));
+		assertFalse(server.isRegistered(system));
+	}
+
+}
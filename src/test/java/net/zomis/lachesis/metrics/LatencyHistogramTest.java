@@ -0,0 +1,73 @@
+package net.zomis.lachesis.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void smallValuesHaveBucketsOfTheirOwn() {
+		for (int value = 0; value < 32; value++) {
+			assertEquals(value, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value)));
+		}
+		assertEquals(0, LatencyHistogram.bucketOf(-5));
+	}
+
+	@Test
+	public void bucketsContainTheirValuesWithinASixteenth() {
+		long[] values = { 16, 17, 31, 32, 33, 1000, 1023, 1024, 1025, 123456789, 1L << 40, (1L << 40) - 1, Long.MAX_VALUE };
+		for (long value : values) {
+			int bucket = LatencyHistogram.bucketOf(value);
+			long highest = LatencyHistogram.highestValueOf(bucket);
+			long lowest = bucket == 0 ? 0 : LatencyHistogram.highestValueOf(bucket - 1) + 1;
+			assertTrue("Bucket of " + value, lowest <= value && value <= highest);
+			assertTrue("Error of " + value, highest - lowest <= lowest / 16);
+		}
+	}
+
+	@Test
+	public void bucketsFollowEachOther() {
+		for (int bucket = 1; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++) {
+			long lowest = LatencyHistogram.highestValueOf(bucket - 1) + 1;
+			assertEquals(bucket, LatencyHistogram.bucketOf(lowest));
+			assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.highestValueOf(bucket)));
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentileNanos(50));
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(5050 * 1000, histogram.getTotalNanos());
+		assertEquals(50500, histogram.getMeanNanos());
+		assertEquals(100000, histogram.getMaxNanos());
+		assertEquals(100000, histogram.getPercentileNanos(100));
+		long median = histogram.getPercentileNanos(50);
+		assertTrue("Median " + median, median >= 50000 && median <= 50000 + 50000 / 16);
+		long p99 = histogram.getPercentileNanos(99);
+		assertTrue("p99 " + p99, p99 >= 99000 && p99 <= 100000);
+		long lowest = histogram.getPercentileNanos(0);
+		assertTrue("p0 " + lowest, lowest >= 1000 && lowest <= 1000 + 1000 / 16);
+	}
+
+	@Test
+	public void resetForgetsValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(500);
+		histogram.reset();
+		histogram.record(20);
+
+		assertEquals(1, histogram.getCount());
+		assertEquals(20, histogram.getMaxNanos());
+		assertEquals(20, histogram.getPercentileNanos(100));
+	}
+
+}
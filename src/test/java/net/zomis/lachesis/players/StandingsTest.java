@@ -0,0 +1,163 @@
+package net.zomis.lachesis.players;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.Game;
+
+public class StandingsTest {
+
+	private static final int PLAYERS = 6;
+
+	private Game game;
+	private List<Entity> players;
+
+	@Before
+	public void setup() {
+		game = new Game();
+		players = new ArrayList<>();
+		for (int i = 0; i < PLAYERS; i++) {
+			players.add(game.newEntity().addComponent(new PlayerComponent(i, "Player " + i)));
+		}
+	}
+
+	private int position(int player) {
+		return players.get(player).getComponent(PlayerComponent.class).getResultPosition();
+	}
+
+	@Test
+	public void winnersTakeTheBestAndLosersTheWorstPositions() {
+		Players.winGame(players.get(0));
+		Players.loseGame(players.get(1));
+		Players.loseGame(players.get(2));
+		Players.winGame(players.get(3));
+
+		assertEquals(Arrays.asList(1, 6, 5, 2), Arrays.asList(position(0), position(1), position(2), position(3)));
+		Standings standings = game.getStandings();
+		assertEquals(2, standings.getFreePositions());
+		assertEquals(3, standings.nextWinnerPosition());
+		assertEquals(4, standings.nextLoserPosition());
+	}
+
+	@Test
+	public void batchesTakeConsecutivePositionsWithOneEvent() {
+		List<PlayersEliminatedEvent> events = new ArrayList<>();
+		int[] single = new int[1];
+		game.getEvents().registerHandlerAfter(this, PlayersEliminatedEvent.class, events::add);
+		game.getEvents().registerHandlerAfter(this, PlayerEliminatedEvent.class, event -> single[0]++);
+		Players.loseGame(Arrays.asList(players.get(0), players.get(1), players.get(2)));
+		Players.winGame(Arrays.asList(players.get(3), players.get(4)));
+
+		assertEquals(Arrays.asList(6, 5, 4, 1, 2), Arrays.asList(position(0), position(1), position(2), position(3), position(4)));
+		assertEquals(2, events.size());
+		assertEquals(0, single[0]);
+		assertEquals(5, events.get(0).getResultPosition(1));
+		assertEquals(3, game.getStandings().nextWinnerPosition());
+	}
+
+	@Test
+	public void cancelledEliminationsTakeNoPositions() {
+		game.getEvents().registerHandlerBefore(this, PlayersEliminatedEvent.class, event -> event.setCancelled(true));
+		game.getEvents().registerHandlerBefore(this, PlayerEliminatedEvent.class, event -> event.setCancelled(true));
+		Players.loseGame(Arrays.asList(players.get(0), players.get(1)));
+		Players.winGame(players.get(2));
+
+		assertEquals(PLAYERS, game.getStandings().getFreePositions());
+		assertEquals(0, position(0));
+		assertEquals(0, position(2));
+	}
+
+	@Test
+	public void rollbackReleasesPositions() {
+		Players.winGame(players.get(0));
+		game.setJournaling(true);
+		int mark = game.mark();
+		Players.winGame(players.get(1));
+		Players.loseGame(Arrays.asList(players.get(2), players.get(3)));
+		game.rollback(mark);
+
+		assertEquals(PLAYERS - 1, game.getStandings().getFreePositions());
+		assertEquals(2, game.getStandings().nextWinnerPosition());
+		assertEquals(PLAYERS, game.getStandings().nextLoserPosition());
+		Players.loseGame(players.get(1));
+		assertEquals(PLAYERS, position(1));
+	}
+
+	@Test
+	public void joiningAndLeavingPlayersChangeThePositions() {
+		Players.loseGame(players.get(0));
+		Entity joined = game.newEntity().addComponent(new PlayerComponent(PLAYERS, "Joined"));
+		assertEquals(PLAYERS + 1, game.getStandings().nextLoserPosition());
+
+		joined.destroy();
+		players.get(5).removeComponent(PlayerComponent.class);
+		assertEquals(PLAYERS - 1, game.getStandings().getFreePositions());
+		assertEquals(PLAYERS - 1, game.getStandings().nextLoserPosition());
+		assertEquals(1, game.getStandings().nextWinnerPosition());
+	}
+
+	@Test
+	public void releasedPositionsOfLeftPlayersAreNotFree() {
+		Standings standings = game.getStandings();
+		standings.take(PLAYERS);
+		players.get(5).destroy();
+		standings.release(PLAYERS);
+		assertEquals(PLAYERS - 1, standings.nextLoserPosition());
+		assertEquals(PLAYERS - 1, standings.getFreePositions());
+	}
+
+	@Test
+	public void eliminatingEveryoneTakesAllPositions() {
+		Players.winGame(players.subList(0, 3));
+		Players.loseGame(players.subList(3, PLAYERS));
+
+		assertEquals(0, game.getStandings().getFreePositions());
+		try {
+			game.getStandings().nextWinnerPosition();
+			fail("Found a free position");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void playersAreOnlyEliminatedOnce() {
+		Players.loseGame(players.get(0));
+		try {
+			Players.winGame(Arrays.asList(players.get(1), players.get(0)));
+			fail("Eliminated a player twice");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			Players.winGame(Arrays.asList(players.get(1), players.get(1)));
+			fail("Eliminated a player twice in one batch");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(PLAYERS - 1, game.getStandings().getFreePositions());
+	}
+
+	@Test
+	public void forksHaveTheirOwnStandings() {
+		Players.winGame(players.get(0));
+		Game fork = game.fork();
+		Players.winGame(fork.getEntity(players.get(1).getId()));
+
+		assertEquals(PLAYERS - 1, game.getStandings().getFreePositions());
+		assertEquals(PLAYERS - 2, fork.getStandings().getFreePositions());
+		assertEquals(0, position(1));
+	}
+
+}
@@ -0,0 +1,157 @@
+package net.zomis.lachesis.replay;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.zomis.lachesis.core.Entity;
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.core.GameCodec;
+import net.zomis.lachesis.io.BinaryOutput;
+import net.zomis.lachesis.players.PlayerComponent;
+import net.zomis.lachesis.players.PlayerComponentCodec;
+import net.zomis.lachesis.players.PlayerEliminatedEvent;
+import net.zomis.lachesis.players.PlayerEliminatedEventCodec;
+import net.zomis.lachesis.players.Players;
+
+public class ReplayTest {
+
+	private static final int PLAYERS = 8;
+
+	private GameCodec codec;
+	/**
+	 * The state at the start of each turn, and at the end of the game
+	 */
+	private List<String> states;
+
+	@Before
+	public void setup() {
+		codec = new GameCodec().register(1, PlayerComponent.class, new PlayerComponentCodec());
+		states = new ArrayList<>();
+	}
+
+	/**
+	 * @return A game where eliminations are sometimes cancelled, depending on the random
+	 */
+	private static Game createGame() {
+		Game game = new Game();
+		game.getEvents().registerHandlerBefore(null, PlayerEliminatedEvent.class, event -> {
+			if (event.getEntity().getGame().getRandom().nextInt(3) == 0) {
+				event.setCancelled(true);
+			}
+		});
+		return game;
+	}
+
+	private static String state(Game game) {
+		StringBuilder result = new StringBuilder();
+		for (Entity entity : game.getFamily(PlayerComponent.class)) {
+			result.append(entity.getId()).append(':').append(entity.getComponent(PlayerComponent.class).getResultPosition()).append(' ');
+		}
+		return result.append(game.getRandom().nextInt(1000)).toString();
+	}
+
+	private void record(WritableByteChannel channel) {
+		Game game = createGame();
+		game.setRandomSeed(42);
+		for (int i = 0; i < PLAYERS; i++) {
+			game.newEntity().addComponent(new PlayerComponent(i, "Player " + i));
+		}
+		ReplayRecorder recorder = new ReplayRecorder(game, codec, channel, 3)
+			.register(1, PlayerEliminatedEvent.class, new PlayerEliminatedEventCodec());
+		recorder.start();
+		for (int turn = 0; turn < PLAYERS; turn++) {
+			states.add(state(game.fork()));
+			Entity player = game.getFamily(PlayerComponent.class).get(turn);
+			if (turn % 2 == 0) {
+				Players.winGame(player);
+			}
+			else {
+				Players.loseGame(player);
+			}
+			recorder.nextTurn();
+		}
+		states.add(state(game.fork()));
+		recorder.stop();
+	}
+
+	private Replay replay(Replay replay) {
+		return replay.register(1, new PlayerEliminatedEventCodec(), (game, event) -> {
+			if (event.isDeclaredWinner()) {
+				Players.winGame(event.getEntity());
+			}
+			else {
+				Players.loseGame(event.getEntity());
+			}
+		});
+	}
+
+	private Replay recordInMemory() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		record(Channels.newChannel(bytes));
+		return replay(new Replay(ByteBuffer.wrap(bytes.toByteArray()), codec));
+	}
+
+	@Test
+	public void replayToEveryTurn() {
+		Replay replay = recordInMemory();
+		assertEquals(PLAYERS, replay.getLastTurn());
+
+		Game game = createGame();
+		for (int turn = replay.getLastTurn(); turn >= 0; turn--) {
+			replay.replayTo(game, turn);
+			assertEquals("Turn " + turn, states.get(turn), state(game));
+		}
+		for (int turn = 0; turn <= replay.getLastTurn(); turn += 2) {
+			replay.replayTo(game, turn);
+			assertEquals("Turn " + turn, states.get(turn), state(game));
+		}
+	}
+
+	@Test
+	public void replayAllRestoresTheEnd() {
+		Replay replay = recordInMemory();
+		Game game = createGame();
+		replay.replayAll(game);
+
+		assertEquals(states.get(states.size() - 1), state(game));
+	}
+
+	@Test
+	public void replayFromFile() throws IOException {
+		Path file = Files.createTempFile("lachesis", ".replay");
+		try {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				record(channel);
+			}
+			Replay replay = replay(Replay.open(file, codec));
+			Game game = createGame();
+			replay.replayTo(game, 5);
+			assertEquals(states.get(5), state(game));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void otherDataIsRejected() {
+		BinaryOutput out = new BinaryOutput();
+		out.writeInt(42).writeVarInt(1);
+		new Replay(out.toByteBuffer(), codec);
+	}
+
+}
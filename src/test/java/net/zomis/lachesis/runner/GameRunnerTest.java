@@ -0,0 +1,181 @@
+package net.zomis.lachesis.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import net.zomis.lachesis.core.Game;
+import net.zomis.lachesis.events.IEvent;
+
+public class GameRunnerTest {
+
+	public static class InputEvent implements IEvent {
+	}
+
+	/**
+	 * Keeps the scheduled games until they are run by the test
+	 */
+	private static class ManualExecutor implements Executor {
+		private final List<Runnable> scheduled = new ArrayList<>();
+		private boolean rejecting;
+
+		@Override
+		public void execute(Runnable command) {
+			if (rejecting) {
+				throw new RejectedExecutionException("Rejected by test");
+			}
+			scheduled.add(command);
+		}
+
+		void runAll() {
+			while (!scheduled.isEmpty()) {
+				scheduled.remove(0).run();
+			}
+		}
+	}
+
+	@Test
+	public void inputsFromManyThreadsRunOnePerGameAtATime() throws Exception {
+		GameRunner runner = new GameRunner(4);
+		int gameCount = 20;
+		List<RunningGame> games = new ArrayList<>();
+		int[] processed = new int[gameCount];
+		AtomicBoolean[] busy = new AtomicBoolean[gameCount];
+		AtomicInteger overlaps = new AtomicInteger();
+		for (int i = 0; i < gameCount; i++) {
+			games.add(runner.add(new Game()));
+			busy[i] = new AtomicBoolean();
+		}
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		for (int producer = 0; producer < 4; producer++) {
+			producers.execute(() -> {
+				for (int k = 0; k < 5000; k++) {
+					int index = k % gameCount;
+					games.get(index).submit(game -> {
+						if (!busy[index].compareAndSet(false, true)) {
+							overlaps.incrementAndGet();
+						}
+						game.newEntity();
+						processed[index]++;
+						busy[index].set(false);
+					});
+				}
+			});
+		}
+		producers.shutdown();
+		assertTrue(producers.awaitTermination(1, TimeUnit.MINUTES));
+		runner.shutdown();
+		assertTrue(runner.awaitTermination(1, TimeUnit.MINUTES));
+
+		assertEquals(0, overlaps.get());
+		for (int i = 0; i < gameCount; i++) {
+			assertEquals(1000, processed[i]);
+			assertEquals(0, games.get(i).getPendingInputs());
+			assertTrue(games.get(i).getTurns() > 0);
+		}
+	}
+
+	@Test
+	public void waitingInputsAreOneTurn() {
+		ManualExecutor executor = new ManualExecutor();
+		GameRunner runner = new GameRunner(executor);
+		Game game = new Game();
+		game.getEvents().setDeferred(true);
+		List<String> executed = new ArrayList<>();
+		RunningGame running = runner.add(game, g -> executed.add("after turn"));
+		for (int i = 0; i < 3; i++) {
+			int input = i;
+			running.submit(g -> g.executeEvent(new InputEvent(), () -> executed.add("event " + input)));
+		}
+
+		assertEquals(1, executor.scheduled.size());
+		assertEquals(3, running.getPendingInputs());
+		executor.runAll();
+
+		assertEquals(Arrays.asList("event 0", "event 1", "event 2", "after turn"), executed);
+		assertEquals(1, running.getTurns());
+		assertEquals(0, running.getPendingInputs());
+		assertEquals(running.getLastLatency(TimeUnit.NANOSECONDS), running.getMaxLatency(TimeUnit.NANOSECONDS));
+	}
+
+	@Test
+	public void failedInputsDoNotStopTheTurn() {
+		ManualExecutor executor = new ManualExecutor();
+		GameRunner runner = new GameRunner(executor);
+		List<Throwable> errors = new ArrayList<>();
+		runner.setErrorHandler((game, e) -> errors.add(e));
+		RunningGame running = runner.add(new Game());
+		AtomicInteger processed = new AtomicInteger();
+		running.submit(game -> processed.incrementAndGet());
+		running.submit(game -> {
+			throw new IllegalStateException("input failed");
+		});
+		running.submit(game -> processed.incrementAndGet());
+		executor.runAll();
+
+		assertEquals(2, processed.get());
+		assertEquals(1, errors.size());
+		assertEquals("input failed", errors.get(0).getMessage());
+		assertEquals(1, running.getTurns());
+	}
+
+	@Test
+	public void rejectedGamesAreScheduledAgain() {
+		ManualExecutor executor = new ManualExecutor();
+		GameRunner runner = new GameRunner(executor);
+		RunningGame running = runner.add(new Game());
+		AtomicInteger processed = new AtomicInteger();
+		executor.rejecting = true;
+		try {
+			running.submit(game -> processed.incrementAndGet());
+			fail("Expected the executor to reject the game");
+		}
+		catch (RejectedExecutionException e) {
+			// expected
+		}
+		assertEquals(1, running.getPendingInputs());
+
+		executor.rejecting = false;
+		running.submit(game -> processed.incrementAndGet());
+		executor.runAll();
+		assertEquals(2, processed.get());
+		assertEquals(0, running.getPendingInputs());
+	}
+
+	@Test
+	public void removedGamesRejectInputs() {
+		ManualExecutor executor = new ManualExecutor();
+		GameRunner runner = new GameRunner(executor);
+		RunningGame running = runner.add(new Game());
+		AtomicInteger processed = new AtomicInteger();
+		running.submit(game -> processed.incrementAndGet());
+
+		assertTrue(runner.remove(running));
+		assertFalse(runner.remove(running));
+		assertEquals(0, runner.getGameCount());
+		try {
+			running.submit(game -> processed.incrementAndGet());
+			fail("Submitted an input to a removed game");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+		executor.runAll();
+		assertEquals(1, processed.get());
+	}
+
+}